@@ -0,0 +1,37 @@
+/**
+ * BenchEntityFactory.java
+ */
+package io.github.radkovo.rdf4j.builder.bench;
+
+import org.eclipse.rdf4j.model.IRI;
+
+import io.github.radkovo.rdf4j.builder.bench.model.BENCHFactory;
+import io.github.radkovo.rdf4j.builder.bench.model.Graph;
+import io.github.radkovo.rdf4j.builder.bench.model.Item;
+import io.github.radkovo.rdf4j.builder.bench.model.Node;
+
+/**
+ * A plain factory for the generated benchmark entities.
+ */
+public class BenchEntityFactory implements BENCHFactory
+{
+
+    @Override
+    public Graph createGraph(IRI iri)
+    {
+        return new Graph(iri);
+    }
+
+    @Override
+    public Item createItem(IRI iri)
+    {
+        return new Item(iri);
+    }
+
+    @Override
+    public Node createNode(IRI iri)
+    {
+        return new Node(iri);
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * EntityGraphs.java
+ */
+package io.github.radkovo.rdf4j.builder.bench;
+
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.impl.TreeModel;
+
+import io.github.radkovo.rdf4j.builder.TargetModel;
+import io.github.radkovo.rdf4j.builder.bench.model.Graph;
+import io.github.radkovo.rdf4j.builder.bench.model.Node;
+
+/**
+ * Creates the entity graphs used by the runtime benchmarks. The graphs are fully determined
+ * by their parametres.
+ * <p>
+ * The nodes form a tree where each node has the given number of children. In the acyclic variant,
+ * the {@code next} links chain the nodes in the creation order. In the cyclic variant, the
+ * {@code next} links form a ring and each node refers one more randomly chosen node as a child.
+ */
+public class EntityGraphs
+{
+    public static final String DATA_NAMESPACE = "http://example.org/bench/data#";
+    public static final IRI GRAPH_IRI = SimpleValueFactory.getInstance().createIRI(DATA_NAMESPACE, "graph");
+
+    private static final int TAG_COUNT = 4;
+    private static final int SCORE_COUNT = 3;
+    private static final int CODE_COUNT = 2;
+
+
+    /**
+     * Creates a new entity graph.
+     * @param size the number of nodes
+     * @param fanOut the number of children of each node
+     * @param cycles create cycles in the graph?
+     * @return the graph entity that refers all the nodes
+     */
+    public static Graph createGraph(int size, int fanOut, boolean cycles)
+    {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final BenchEntityFactory factory = new BenchEntityFactory();
+        final Random rnd = new Random(42);
+        final GregorianCalendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        cal.clear();
+        cal.set(2020, 0, 1);
+        final long baseTime = cal.getTimeInMillis();
+
+        final Graph graph = factory.createGraph(GRAPH_IRI);
+        final Node[] nodes = new Node[size];
+        for (int i = 0; i < size; i++)
+        {
+            final Node node = factory.createNode(vf.createIRI(DATA_NAMESPACE, "n" + i));
+            node.setName("Node " + i);
+            node.setCount(i);
+            node.setWeight(rnd.nextDouble());
+            node.setCreated(new Date(baseTime + 60000L * i));
+            node.setSerial(1000000007L * i);
+            node.setActive(i % 3 != 0);
+            final String[] tags = new String[TAG_COUNT];
+            for (int j = 0; j < TAG_COUNT; j++)
+                tags[j] = "tag" + rnd.nextInt(100);
+            node.setTags(tags);
+            final float[] scores = new float[SCORE_COUNT];
+            for (int j = 0; j < SCORE_COUNT; j++)
+                scores[j] = rnd.nextFloat();
+            node.setScores(scores);
+            final short[] codes = new short[CODE_COUNT];
+            for (int j = 0; j < CODE_COUNT; j++)
+                codes[j] = (short) rnd.nextInt(1000);
+            node.setCodes(codes);
+            node.addGraph(graph);
+            nodes[i] = node;
+        }
+        graph.setRoot(nodes[0]);
+
+        for (int i = 0; i < size; i++)
+        {
+            for (int j = 1; j <= fanOut; j++)
+            {
+                final long child = (long) i * fanOut + j;
+                if (child < size)
+                    nodes[(int) child].addNode(nodes[i]);
+            }
+            if (cycles)
+            {
+                nodes[rnd.nextInt(size)].addNode(nodes[i]);
+                nodes[i].setNext(nodes[(i + 1) % size]);
+            }
+            else if (i + 1 < size)
+                nodes[i].setNext(nodes[i + 1]);
+        }
+        return graph;
+    }
+
+    /**
+     * Creates an empty model of the given type.
+     * @param type the model type: {@code LinkedHashModel} or {@code TreeModel}
+     * @return the new model
+     */
+    public static Model createModel(String type)
+    {
+        switch (type)
+        {
+            case "LinkedHashModel":
+                return new LinkedHashModel();
+            case "TreeModel":
+                return new TreeModel();
+            default:
+                throw new IllegalArgumentException("Unknown model type: " + type);
+        }
+    }
+
+    /**
+     * Serializes an entity graph to a new model.
+     * @param graph the graph to serialize
+     * @param type the model type
+     * @return the model that contains the graph
+     */
+    public static Model toModel(Graph graph, String type)
+    {
+        final Model model = createModel(type);
+        new TargetModel(model).add(graph);
+        return model;
+    }
+
+}
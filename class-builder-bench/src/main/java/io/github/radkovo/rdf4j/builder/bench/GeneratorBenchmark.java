@@ -0,0 +1,160 @@
+/**
+ * GeneratorBenchmark.java
+ */
+package io.github.radkovo.rdf4j.builder.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.github.radkovo.rdf4j.builder.ClassBuilder;
+import io.github.radkovo.rdf4j.builder.JavaClassBuilder;
+import io.github.radkovo.rdf4j.builder.js.JSMappingBuilder;
+
+/**
+ * Benchmarks of the individual generator phases over synthetic ontologies of different sizes.
+ * Use the JMH {@code -p} option for choosing a subset of the scales, e.g.
+ * {@code java -jar benchmarks.jar GeneratorBenchmark -p classes=1000}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GeneratorBenchmark
+{
+    /** The number of classes in the ontology */
+    @Param({"100", "1000", "10000", "50000"})
+    public int classes;
+
+    /** The number of properties declared in each class */
+    @Param({"4", "16"})
+    public int fanOut;
+
+    /** The depth of the class hierarchy */
+    @Param({"2", "8"})
+    public int depth;
+
+    private Path workDir;
+    private Path inputFile;
+    private Path javaDir;
+    private Path jsDir;
+    private BenchJavaClassBuilder javaBuilder;
+    private JSMappingBuilder jsBuilder;
+
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException
+    {
+        workDir = Files.createTempDirectory("class-builder-bench");
+        inputFile = workDir.resolve("ontology.ttl");
+        new SyntheticOntology(classes, fanOut, depth).write(inputFile, RDFFormat.TURTLE);
+        javaDir = Files.createDirectory(workDir.resolve("java"));
+        jsDir = Files.createDirectory(workDir.resolve("js"));
+
+        javaBuilder = new BenchJavaClassBuilder();
+        javaBuilder.load(inputFile.toString(), RDFFormat.TURTLE);
+        javaBuilder.setPackageName("org.example.bench");
+        javaBuilder.setVocabPackageName("org.example.bench");
+        javaBuilder.setVocabName("BENCH");
+
+        jsBuilder = new JSMappingBuilder(javaBuilder.getSchemaIndex());
+        jsBuilder.setVocabName("BENCH");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException
+    {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * Parses the ontology file and builds the schema index.
+     */
+    @Benchmark
+    public ClassBuilder load() throws IOException
+    {
+        final JavaClassBuilder cb = new JavaClassBuilder();
+        cb.load(inputFile.toString(), RDFFormat.TURTLE);
+        return cb;
+    }
+
+    @Benchmark
+    public Set<Resource> findClasses()
+    {
+        return javaBuilder.findAllClasses();
+    }
+
+    /**
+     * Finds the direct and reverse properties of all the classes.
+     */
+    @Benchmark
+    public void findClassProperties(Blackhole bh)
+    {
+        for (Resource cls : javaBuilder.findAllClasses())
+        {
+            if (cls instanceof IRI)
+            {
+                bh.consume(javaBuilder.findProperties((IRI) cls, RDFS.DOMAIN));
+                bh.consume(javaBuilder.findProperties((IRI) cls, RDFS.RANGE));
+            }
+        }
+    }
+
+    @Benchmark
+    public void generateJava() throws IOException
+    {
+        javaBuilder.generate(javaDir);
+    }
+
+    @Benchmark
+    public void generateJS() throws IOException
+    {
+        jsBuilder.generate(jsDir);
+    }
+
+    //=======================================================================================================
+
+    /**
+     * Makes the class discovery methods accessible to the benchmarks.
+     */
+    static class BenchJavaClassBuilder extends JavaClassBuilder
+    {
+        public Set<Resource> findAllClasses()
+        {
+            return findClasses();
+        }
+
+        public Set<IRI> findProperties(IRI classIRI, IRI predicate)
+        {
+            return findClassProperties(classIRI, predicate);
+        }
+    }
+
+}
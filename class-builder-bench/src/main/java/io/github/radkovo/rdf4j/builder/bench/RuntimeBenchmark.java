@@ -0,0 +1,402 @@
+/**
+ * RuntimeBenchmark.java
+ */
+package io.github.radkovo.rdf4j.builder.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.TreeModel;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.radkovo.rdf4j.builder.ChangeSet;
+import io.github.radkovo.rdf4j.builder.ConcurrentTargetModel;
+import io.github.radkovo.rdf4j.builder.EntityIndex;
+import io.github.radkovo.rdf4j.builder.EntityReader;
+import io.github.radkovo.rdf4j.builder.EntityStream;
+import io.github.radkovo.rdf4j.builder.HandlerTargetModel;
+import io.github.radkovo.rdf4j.builder.LoadContext;
+import io.github.radkovo.rdf4j.builder.RepositoryTargetModel;
+import io.github.radkovo.rdf4j.builder.TargetModel;
+import io.github.radkovo.rdf4j.builder.bench.model.Graph;
+import io.github.radkovo.rdf4j.builder.bench.model.Node;
+
+/**
+ * Benchmarks of storing the generated entities to a model and loading them back. The allocation
+ * rate is reported when the GC profiler is enabled: run the {@link #main(String[])} method or
+ * use the {@code -prof gc} option of the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RuntimeBenchmark
+{
+    /** The number of nodes in the graph */
+    @Param({"100", "10000"})
+    public int size;
+
+    /** The number of children of each node */
+    @Param({"2", "8"})
+    public int fanOut;
+
+    /** Create cycles in the graph? */
+    @Param({"false", "true"})
+    public boolean cycles;
+
+    /** The RDF4J model implementation */
+    @Param({"LinkedHashModel", "TreeModel"})
+    public String modelType;
+
+    private Graph graph;
+    private Model source;
+    private EntityIndex index;
+    private byte[] ntriples;
+    private List<IRI> nodeIRIs;
+    private Repository repository;
+    private Model syncModel;
+    private Graph syncGraph;
+    private int syncCounter;
+    private BenchEntityFactory factory;
+
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        factory = new BenchEntityFactory();
+        graph = EntityGraphs.createGraph(size, fanOut, cycles);
+        source = EntityGraphs.toModel(graph, modelType);
+        index = new EntityIndex(source);
+        //the statements of the tree model are sorted by their subjects
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Rio.write(new TreeModel(source), os, RDFFormat.NTRIPLES);
+        ntriples = os.toByteArray();
+        nodeIRIs = new ArrayList<>(Models.subjectIRIs(source.filter(null, RDF.TYPE, Node.CLASS_IRI)));
+        repository = new SailRepository(new MemoryStore());
+        repository.init();
+        try (RepositoryConnection con = repository.getConnection())
+        {
+            con.add(source);
+        }
+        syncModel = EntityGraphs.createModel(modelType);
+        syncModel.addAll(source);
+        syncGraph = factory.createGraph(EntityGraphs.GRAPH_IRI);
+        syncGraph.loadFromModel(syncModel, factory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        repository.shutDown();
+    }
+
+    /**
+     * Stores the whole entity graph to a new model.
+     */
+    @Benchmark
+    public Model addToModel()
+    {
+        final Model model = EntityGraphs.createModel(modelType);
+        new TargetModel(model).add(graph);
+        return model;
+    }
+
+    /**
+     * Stores all the nodes of the graph to a new model using multiple threads.
+     */
+    @Benchmark
+    public Model addToModelParallel()
+    {
+        final Model model = EntityGraphs.createModel(modelType);
+        final ConcurrentTargetModel target = new ConcurrentTargetModel(model);
+        target.add(graph);
+        target.addAllParallel(graph.getMembers());
+        target.flush();
+        return model;
+    }
+
+    /**
+     * Stores the whole entity graph to an in-memory repository through an intermediate model.
+     */
+    @Benchmark
+    public long addToRepositoryViaModel()
+    {
+        final Model model = EntityGraphs.createModel(modelType);
+        new TargetModel(model).add(graph);
+        return withRepository(con -> {
+            con.add(model);
+            return con.size();
+        });
+    }
+
+    /**
+     * Stores the whole entity graph to an in-memory repository in batches.
+     */
+    @Benchmark
+    public long addToRepository()
+    {
+        return withRepository(con -> {
+            try (RepositoryTargetModel target = new RepositoryTargetModel(con, RepositoryTargetModel.DEFAULT_BATCH_SIZE, false))
+            {
+                target.add(graph);
+            }
+            return con.size();
+        });
+    }
+
+    /**
+     * Stores the whole entity graph to an in-memory repository in batches committed in background.
+     */
+    @Benchmark
+    public long addToRepositoryBackground()
+    {
+        return withRepository(con -> {
+            try (RepositoryTargetModel target = new RepositoryTargetModel(con, RepositoryTargetModel.DEFAULT_BATCH_SIZE, true))
+            {
+                target.add(graph);
+            }
+            return con.size();
+        });
+    }
+
+    /**
+     * Changes a single property of a loaded graph and stores the change to the model.
+     */
+    @Benchmark
+    public ChangeSet syncChange()
+    {
+        syncGraph.getRoot().setName("node" + (syncCounter++));
+        return syncGraph.syncToModel(syncModel);
+    }
+
+    /**
+     * Writes the whole entity graph as N-Triples through an intermediate model.
+     */
+    @Benchmark
+    public void writeViaModel()
+    {
+        final Model model = EntityGraphs.createModel(modelType);
+        new TargetModel(model).add(graph);
+        Rio.write(model, new NullOutputStream(), RDFFormat.NTRIPLES);
+    }
+
+    /**
+     * Writes the whole entity graph as N-Triples directly to the writer.
+     */
+    @Benchmark
+    public void writeStreaming()
+    {
+        final HandlerTargetModel target = new HandlerTargetModel(Rio.createWriter(RDFFormat.NTRIPLES, new NullOutputStream()));
+        target.startRDF();
+        target.add(graph);
+        target.endRDF();
+    }
+
+    /**
+     * Parses subject-sorted N-Triples to a model and loads all the nodes from the model.
+     */
+    @Benchmark
+    public List<Node> readViaModel() throws IOException
+    {
+        final Model model = Rio.parse(new ByteArrayInputStream(ntriples), "", RDFFormat.NTRIPLES);
+        return Node.loadAllNodes(model, factory);
+    }
+
+    /**
+     * Reads the entities from subject-sorted N-Triples directly.
+     */
+    @Benchmark
+    public void readStreaming(Blackhole bh) throws IOException
+    {
+        EntityReader.read(new ByteArrayInputStream(ntriples), RDFFormat.NTRIPLES, factory, bh::consume);
+    }
+
+    /**
+     * Loads the graph entity from the model.
+     */
+    @Benchmark
+    public Graph loadGraph()
+    {
+        final Graph ret = factory.createGraph(EntityGraphs.GRAPH_IRI);
+        ret.loadFromModel(source, factory);
+        return ret;
+    }
+
+    /**
+     * Loads the graph entity from an entity index of the model.
+     */
+    @Benchmark
+    public Graph loadGraphFromIndex()
+    {
+        final Graph ret = factory.createGraph(EntityGraphs.GRAPH_IRI);
+        ret.loadFrom(index, factory);
+        return ret;
+    }
+
+    /**
+     * Loads the graph entity from a repository using the generated queries.
+     */
+    @Benchmark
+    public Graph loadGraphFromRepository()
+    {
+        final Graph ret = factory.createGraph(EntityGraphs.GRAPH_IRI);
+        try (RepositoryConnection con = repository.getConnection())
+        {
+            ret.loadFromRepository(con, factory);
+        }
+        return ret;
+    }
+
+    /**
+     * Loads the graph entity from a repository by exporting the repository to a model first.
+     */
+    @Benchmark
+    public Graph loadGraphViaModel()
+    {
+        final Graph ret = factory.createGraph(EntityGraphs.GRAPH_IRI);
+        try (RepositoryConnection con = repository.getConnection())
+        {
+            final Model model = EntityGraphs.createModel(modelType);
+            con.export(new StatementCollector(model));
+            ret.loadFromModel(model, factory);
+        }
+        return ret;
+    }
+
+    /**
+     * Creates an entity index of the model.
+     */
+    @Benchmark
+    public EntityIndex buildIndex()
+    {
+        return new EntityIndex(source);
+    }
+
+    /**
+     * Loads every node from the model using a shared load context.
+     */
+    @Benchmark
+    public void loadNodes(Blackhole bh)
+    {
+        final LoadContext context = factory.createLoadContext(source);
+        for (IRI iri : nodeIRIs)
+            bh.consume(context.getEntity(iri, Node.class, factory::createNode));
+        context.processQueue();
+    }
+
+    /**
+     * Loads all the nodes using the generated bulk loader.
+     */
+    @Benchmark
+    public List<Node> loadAllNodes()
+    {
+        return Node.loadAllNodes(source, factory);
+    }
+
+    /**
+     * Loads all the nodes using a sequential entity stream.
+     */
+    @Benchmark
+    public long streamNodes()
+    {
+        return EntityStream.of(source, Node.CLASS_IRI, Node.class, factory, false, false)
+                .mapToInt(node -> node.getChildren().size())
+                .sum();
+    }
+
+    /**
+     * Loads all the nodes using a parallel entity stream (including the indexing of the model).
+     */
+    @Benchmark
+    public long parallelStreamNodes()
+    {
+        return EntityStream.of(source, Node.CLASS_IRI, Node.class, factory, false, true)
+                .mapToInt(node -> node.getChildren().size())
+                .sum();
+    }
+
+    //=======================================================================================================
+
+    private static long withRepository(Function<RepositoryConnection, Long> action)
+    {
+        final Repository repo = new SailRepository(new MemoryStore());
+        repo.init();
+        try (RepositoryConnection con = repo.getConnection())
+        {
+            return action.apply(con);
+        }
+        finally
+        {
+            repo.shutDown();
+        }
+    }
+
+
+    /**
+     * An output stream that discards all the data.
+     */
+    static class NullOutputStream extends OutputStream
+    {
+        @Override
+        public void write(int b)
+        {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+        }
+    }
+
+    /**
+     * Runs the runtime benchmarks with the GC profiler enabled.
+     * @param args the command-line arguments (not used)
+     * @throws RunnerException
+     */
+    public static void main(String[] args) throws RunnerException
+    {
+        final Options opt = new OptionsBuilder()
+                .include(RuntimeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+}
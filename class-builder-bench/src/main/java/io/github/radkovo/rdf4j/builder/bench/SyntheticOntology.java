@@ -0,0 +1,170 @@
+/**
+ * SyntheticOntology.java
+ */
+package io.github.radkovo.rdf4j.builder.bench;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
+
+/**
+ * A generator of synthetic OWL ontologies used as the benchmark inputs. The generated
+ * ontology is fully determined by its parametres so that the results of different runs
+ * are comparable.
+ * <p>
+ * The classes are organized in a forest of the given depth. Each class declares the given
+ * number of properties (the fan-out); every second property is an object property
+ * that refers a random class, the remaining ones are datatype properties.
+ * Approximately one half of the properties are functional.
+ */
+public class SyntheticOntology
+{
+    public static final String NAMESPACE = "http://example.org/bench#";
+    public static final String PREFIX = "bench";
+
+    private static final IRI[] DATA_TYPES = new IRI[] {
+            XMLSchema.STRING, XMLSchema.INT, XMLSchema.DATETIME, XMLSchema.FLOAT,
+            XMLSchema.BOOLEAN, XMLSchema.LONG, XMLSchema.DOUBLE
+    };
+
+    private final int classCount;
+    private final int fanOut;
+    private final int depth;
+    private final long seed;
+
+
+    /**
+     * Creates a new ontology generator.
+     * @param classCount the number of classes
+     * @param fanOut the number of properties declared in each class
+     * @param depth the depth of the class hierarchy (1 means no subclasses)
+     */
+    public SyntheticOntology(int classCount, int fanOut, int depth)
+    {
+        this(classCount, fanOut, depth, 42);
+    }
+
+    /**
+     * Creates a new ontology generator.
+     * @param classCount the number of classes
+     * @param fanOut the number of properties declared in each class
+     * @param depth the depth of the class hierarchy (1 means no subclasses)
+     * @param seed the random seed used for choosing the superclasses and property ranges
+     */
+    public SyntheticOntology(int classCount, int fanOut, int depth, long seed)
+    {
+        if (classCount < 1 || fanOut < 0 || depth < 1)
+            throw new IllegalArgumentException("Invalid ontology parametres");
+        this.classCount = classCount;
+        this.fanOut = fanOut;
+        this.depth = depth;
+        this.seed = seed;
+    }
+
+    public int getClassCount()
+    {
+        return classCount;
+    }
+
+    public int getFanOut()
+    {
+        return fanOut;
+    }
+
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Generates the ontology.
+     * @return a new model that contains the ontology
+     */
+    public Model createModel()
+    {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        final Random rnd = new Random(seed);
+        final Model model = new LinkedHashModel();
+        model.setNamespace(PREFIX, NAMESPACE);
+        model.setNamespace(RDF.PREFIX, RDF.NAMESPACE);
+        model.setNamespace(RDFS.PREFIX, RDFS.NAMESPACE);
+        model.setNamespace(OWL.PREFIX, OWL.NAMESPACE);
+        model.setNamespace(XMLSchema.PREFIX, XMLSchema.NAMESPACE);
+
+        for (int i = 0; i < classCount; i++)
+        {
+            final IRI cls = classIRI(vf, i);
+            model.add(cls, RDF.TYPE, OWL.CLASS);
+            model.add(cls, RDFS.LABEL, vf.createLiteral("Class " + i, "en"));
+            model.add(cls, RDFS.COMMENT, vf.createLiteral("A synthetic class number " + i + ".", "en"));
+            //class i is at the level (i % depth); its superclass is a random class at the previous level
+            if (i % depth > 0)
+            {
+                final int prevCount = (i - 1) / depth + 1; //classes with index < i at the previous level
+                final int sup = (i - 1) - depth * rnd.nextInt(prevCount);
+                model.add(cls, RDFS.SUBCLASSOF, classIRI(vf, sup));
+            }
+
+            for (int j = 0; j < fanOut; j++)
+            {
+                final IRI prop = vf.createIRI(NAMESPACE, "c" + i + "p" + j);
+                final boolean functional = rnd.nextBoolean();
+                if (j % 2 == 1)
+                {
+                    model.add(prop, RDF.TYPE, OWL.OBJECTPROPERTY);
+                    model.add(prop, RDFS.RANGE, classIRI(vf, rnd.nextInt(classCount)));
+                }
+                else
+                {
+                    model.add(prop, RDF.TYPE, OWL.DATATYPEPROPERTY);
+                    model.add(prop, RDFS.RANGE, DATA_TYPES[rnd.nextInt(DATA_TYPES.length)]);
+                }
+                if (functional)
+                    model.add(prop, RDF.TYPE, OWL.FUNCTIONALPROPERTY);
+                model.add(prop, RDFS.DOMAIN, cls);
+                model.add(prop, RDFS.LABEL, vf.createLiteral("Property " + j + " of class " + i, "en"));
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Generates the ontology and writes it to a file.
+     * @param file the output file
+     * @param format the output format
+     * @throws IOException
+     */
+    public void write(Path file, RDFFormat format) throws IOException
+    {
+        final Model model = createModel();
+        try (OutputStream out = Files.newOutputStream(file)) {
+            Rio.write(model, out, format);
+        }
+    }
+
+    private static IRI classIRI(ValueFactory vf, int i)
+    {
+        return vf.createIRI(NAMESPACE, "C" + i);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SyntheticOntology [classes=" + classCount + ", fanOut=" + fanOut + ", depth=" + depth + "]";
+    }
+
+}
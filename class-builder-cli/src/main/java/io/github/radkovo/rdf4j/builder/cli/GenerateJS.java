@@ -7,6 +7,8 @@ package io.github.radkovo.rdf4j.builder.cli;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -19,6 +21,7 @@ import org.apache.commons.cli.PosixParser;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.Rio;
 
+import io.github.radkovo.rdf4j.builder.SchemaCache;
 import io.github.radkovo.rdf4j.builder.js.JSMappingBuilder;
 import io.github.radkovo.rdf4j.vocab.GenerationException;
 
@@ -53,8 +56,11 @@ public class GenerateJS
             String vocabName = cli.getOptionValue('v');
             String classDir = cli.hasOption('O') ? cli.getOptionValue('O') : cwd;
             String includePrefix = cli.hasOption('I') ? cli.getOptionValue('I') : "";
+            boolean incremental = cli.hasOption('i');
+            boolean schemaOnly = cli.hasOption('s');
+            SchemaCache cache = cli.hasOption('c') ? new SchemaCache(Paths.get(cli.getOptionValue('c'))) : null;
             
-            generateFromOWL(cliArgs, format, vocabName, classDir, includePrefix);
+            generateFromOWL(cliArgs, format, vocabName, classDir, includePrefix, incremental, schemaOnly, cache);
             
         } catch (MissingOptionException e) {
             printHelp("Missing option: " + e.getMessage());
@@ -69,14 +75,17 @@ public class GenerateJS
     }
 
     private static void generateFromOWL(String[] filenames, RDFFormat format,
-            String vocabName, String classDir, String includePrefix)
+            String vocabName, String classDir, String includePrefix, boolean incremental,
+            boolean schemaOnly, SchemaCache cache)
             throws IOException, GenerationException
     {
         //build JS mappings
         JSMappingBuilder gen = new JSMappingBuilder();
-        for (String filename : filenames)
-            gen.load(filename, format);
+        gen.setSchemaOnly(schemaOnly);
+        gen.setSchemaCache(cache);
+        gen.load(Arrays.asList(filenames), format);
         gen.setVocabName(vocabName);
+        gen.setIncremental(incremental);
         gen.generate(classDir);
     }
     
@@ -137,6 +146,28 @@ public class GenerateJS
                 .isRequired(false)
                 .create('I'));
 
+        o.addOption(OptionBuilder
+                .withLongOpt("incremental")
+                .withDescription("regenerate only the files whose inputs have changed since the last run")
+                .isRequired(false)
+                .hasArg(false)
+                .create('i'));
+
+        o.addOption(OptionBuilder
+                .withLongOpt("schema-only")
+                .withDescription("keep only the schema statements when reading the input files (saves memory for inputs with instance data)")
+                .isRequired(false)
+                .hasArg(false)
+                .create('s'));
+
+        o.addOption(OptionBuilder
+                .withLongOpt("cache-dir")
+                .withDescription("directory for caching the parsed input files (no caching when absent)")
+                .hasArgs(1)
+                .withArgName("path")
+                .isRequired(false)
+                .create('c'));
+
         o.addOption(OptionBuilder
                 .withLongOpt("help")
                 .withDescription("print this help")
@@ -6,8 +6,17 @@
 package io.github.radkovo.rdf4j.builder.cli;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -17,10 +26,13 @@ import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.cli.PosixParser;
+import org.eclipse.rdf4j.model.Model;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.Rio;
 
 import io.github.radkovo.rdf4j.builder.JavaClassBuilder;
+import io.github.radkovo.rdf4j.builder.SchemaCache;
+import io.github.radkovo.rdf4j.builder.js.JSMappingBuilder;
 import io.github.radkovo.rdf4j.vocab.GenerationException;
 import io.github.radkovo.rdf4j.vocab.VocabBuilder;
 
@@ -62,8 +74,15 @@ public class Main
             String classDir = cli.hasOption('O') ? cli.getOptionValue('O') : vocabDir;
             String classPackage = cli.hasOption('P') ? cli.getOptionValue('P') : vocabPackage;
             String includePrefix = cli.hasOption('I') ? cli.getOptionValue('I') : "";
+            int jobs = cli.hasOption('j') ? parseJobs(cli.getOptionValue('j')) : 1;
+            boolean incremental = cli.hasOption('i');
+            boolean schemaOnly = cli.hasOption('s');
+            boolean lazy = cli.hasOption('L');
+            SchemaCache cache = cli.hasOption('c') ? new SchemaCache(Paths.get(cli.getOptionValue('c'))) : null;
+            String jsDir = cli.hasOption('J') ? cli.getOptionValue('J') : null;
             
-            generateFromOWL(cliArgs, format, vocabName, vocabDir, vocabPackage, classDir, classPackage, includePrefix);
+            generateFromOWL(cliArgs, format, vocabName, vocabDir, vocabPackage, classDir, classPackage, includePrefix,
+                    jobs, incremental, schemaOnly, lazy, cache, jsDir);
             
         } catch (MissingOptionException e) {
             printHelp("Missing option: " + e.getMessage());
@@ -79,26 +98,116 @@ public class Main
 
     private static void generateFromOWL(String[] filenames, RDFFormat format,
             String vocabName, String vocabDir, String vocabPackage,
-            String classDir, String classPackage, String includePrefix)
+            String classDir, String classPackage, String includePrefix, int jobs, boolean incremental,
+            boolean schemaOnly, boolean lazy, SchemaCache cache, String jsDir)
             throws IOException, GenerationException
     {
-        //build vocabularies
-        for (String filename : filenames)
+        //parse all the input files (in parallel) to a shared model
+        JavaClassBuilder cb = new JavaClassBuilder();
+        cb.setSchemaCache(cache);
+        cb.load(Arrays.asList(filenames), format);
+        //the vocabulary is built from the complete model, the classes may use the schema only;
+        //the complete model is kept until the vocabulary is generated even when the schema is retained
+        final Model fullModel = cb.getModel();
+        if (schemaOnly)
+            cb.retainSchema();
+        
+        //build the vocabulary and the JS mappings concurrently with the classes
+        final ExecutorService exec = Executors.newFixedThreadPool(2);
+        try
+        {
+            final Future<Void> vocab = exec.submit(() -> {
+                generateVocabulary(fullModel, vocabName, vocabDir, vocabPackage);
+                return null;
+            });
+            
+            Future<Void> mappers = null;
+            if (jsDir != null)
+            {
+                //the JS builder shares the compiled schema with the class builder
+                final JSMappingBuilder jb = new JSMappingBuilder(cb.getSchemaIndex());
+                jb.setVocabName(vocabName);
+                jb.setIncludePrefix(includePrefix);
+                jb.setIncremental(incremental);
+                mappers = exec.submit(() -> {
+                    jb.generate(jsDir);
+                    return null;
+                });
+            }
+            
+            //build classes
+            cb.setPackageName(classPackage);
+            cb.setVocabPackageName(vocabPackage);
+            cb.setVocabName(vocabName);
+            cb.setIncludePrefix(includePrefix);
+            cb.setParallelism(jobs);
+            cb.setIncremental(incremental);
+            cb.setLazyLoading(lazy);
+            cb.generate(classDir);
+            
+            waitFor(vocab);
+            if (mappers != null)
+                waitFor(mappers);
+        }
+        finally
         {
-            VocabBuilder vb = new VocabBuilder(filename, format);
+            exec.shutdown();
+        }
+    }
+    
+    private static void waitFor(Future<Void> task) throws IOException, GenerationException
+    {
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            else if (e.getCause() instanceof GenerationException)
+                throw (GenerationException) e.getCause();
+            else if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            else
+                throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Generation interrupted");
+        }
+    }
+    
+    /**
+     * Generates a single vocabulary for the shared model of all the input files. The vocabulary builder
+     * reads its input from a file only, so the model is passed to it as a temporary file that is parsed
+     * again by the builder.
+     */
+    private static void generateVocabulary(Model model, String vocabName, String vocabDir, String vocabPackage)
+            throws IOException, GenerationException
+    {
+        final Path tmp = Files.createTempFile("vocab", ".ttl");
+        try
+        {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                Rio.write(model, out, RDFFormat.TURTLE);
+            }
+            VocabBuilder vb = new VocabBuilder(tmp.toString(), RDFFormat.TURTLE);
             vb.setPackageName(vocabPackage);
             vb.generate(Paths.get(vocabDir, vocabName + ".java"));
         }
-        
-        //build classes
-        JavaClassBuilder cb = new JavaClassBuilder();
-        for (String filename : filenames)
-            cb.load(filename, format);
-        cb.setPackageName(classPackage);
-        cb.setVocabPackageName(vocabPackage);
-        cb.setVocabName(vocabName);
-        cb.setIncludePrefix(includePrefix);
-        cb.generate(classDir);
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static int parseJobs(String value) throws ParseException
+    {
+        try {
+            final int jobs = Integer.parseInt(value);
+            if (jobs < 1)
+                throw new ParseException("The number of jobs must be at least 1");
+            return jobs;
+        } catch (NumberFormatException e) {
+            throw new ParseException("Invalid number of jobs: " + value);
+        }
     }
 
     private static void printHelp() 
@@ -174,6 +283,14 @@ public class Main
                 .isRequired(false)
                 .create('O'));
 
+        o.addOption(OptionBuilder
+                .withLongOpt("js-dir")
+                .withDescription("the output directory for the JS mappers (no JS mappers are generated when absent)")
+                .hasArgs(1)
+                .withArgName("path")
+                .isRequired(false)
+                .create('J'));
+
         o.addOption(OptionBuilder
                 .withLongOpt("include-prefix")
                 .withDescription("class IRI prefix to include (classes with other prefixes will be excluded)")
@@ -182,6 +299,43 @@ public class Main
                 .isRequired(false)
                 .create('I'));
 
+        o.addOption(OptionBuilder
+                .withLongOpt("jobs")
+                .withDescription("number of classes generated in parallel (1 when absent)")
+                .hasArgs(1)
+                .withArgName("count")
+                .isRequired(false)
+                .create('j'));
+
+        o.addOption(OptionBuilder
+                .withLongOpt("incremental")
+                .withDescription("regenerate only the files whose inputs have changed since the last run")
+                .isRequired(false)
+                .hasArg(false)
+                .create('i'));
+
+        o.addOption(OptionBuilder
+                .withLongOpt("schema-only")
+                .withDescription("keep only the schema statements for generating the classes (does not apply to the vocabulary)")
+                .isRequired(false)
+                .hasArg(false)
+                .create('s'));
+
+        o.addOption(OptionBuilder
+                .withLongOpt("lazy")
+                .withDescription("generate classes that load the referenced entities on first access")
+                .isRequired(false)
+                .hasArg(false)
+                .create('L'));
+
+        o.addOption(OptionBuilder
+                .withLongOpt("cache-dir")
+                .withDescription("directory for caching the parsed input files (no caching when absent)")
+                .hasArgs(1)
+                .withArgName("path")
+                .isRequired(false)
+                .create('c'));
+
         o.addOption(OptionBuilder
                 .withLongOpt("help")
                 .withDescription("print this help")
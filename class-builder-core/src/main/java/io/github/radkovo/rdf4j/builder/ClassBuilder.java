@@ -5,17 +5,30 @@
  */
 package io.github.radkovo.rdf4j.builder;
 
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.atteo.evo.inflector.English;
@@ -23,9 +36,11 @@ import org.eclipse.rdf4j.model.BNode;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.Statement;
 import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
 import org.eclipse.rdf4j.model.util.RDFCollections;
 import org.eclipse.rdf4j.model.vocabulary.DC;
 import org.eclipse.rdf4j.model.vocabulary.DCTERMS;
@@ -35,7 +50,9 @@ import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.eclipse.rdf4j.model.vocabulary.SKOS;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
 import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.UnsupportedRDFormatException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,25 +66,31 @@ public abstract class ClassBuilder
 {
     private static final Logger log = LoggerFactory.getLogger(ClassBuilder.class);
 
-    private static final IRI[] COMMENT_PROPERTIES = new IRI[]{RDFS.COMMENT, DCTERMS.DESCRIPTION, SKOS.DEFINITION, DC.DESCRIPTION};
-    private static final IRI[] LABEL_PROPERTIES = new IRI[]{RDFS.LABEL, DCTERMS.TITLE, DC.TITLE, SKOS.PREF_LABEL, SKOS.ALT_LABEL};
-    private static final IRI[] PROPERTY_PROPERTIES = new IRI[]{RDF.PROPERTY, OWL.DATATYPEPROPERTY, OWL.OBJECTPROPERTY};
-    private static final Set<IRI> classPredicates;
-    static {
-        classPredicates = new HashSet<>();
-        classPredicates.add(RDFS.CLASS);
-        classPredicates.add(OWL.CLASS);
-    }
+    static final IRI[] COMMENT_PROPERTIES = new IRI[]{RDFS.COMMENT, DCTERMS.DESCRIPTION, SKOS.DEFINITION, DC.DESCRIPTION};
+    static final IRI[] LABEL_PROPERTIES = new IRI[]{RDFS.LABEL, DCTERMS.TITLE, DC.TITLE, SKOS.PREF_LABEL, SKOS.ALT_LABEL};
+    static final IRI[] PROPERTY_PROPERTIES = new IRI[]{RDF.PROPERTY, OWL.DATATYPEPROPERTY, OWL.OBJECTPROPERTY};
+    
+    /**
+     * The version of the generated code. It is included in the input hashes used in the incremental
+     * mode; it must be increased whenever the code generated for the same input changes so that
+     * the files generated by previous versions are not kept.
+     */
+    public static final int GENERATOR_VERSION = 1;
     
     //generation settings
     private String indent = "\t";
     private String language = null;
     private String vocabName = null;
     private String includePrefix = "";
+    private boolean incremental = false;
+    private boolean schemaOnly = false;
+    private SchemaCache schemaCache = null;
 
     //ontology data
     private Model model;
-    private Set<String> localNamespaces;
+    private SchemaIndex schema;
+    /** Resolved property descriptors for the current schema */
+    private final Map<IRI, PropertyDescriptor> propertyDescriptors = new ConcurrentHashMap<>();
     
     /**
      * Creates and empty class builder. The models may be loaded using {@link ClassBuilder#load(String, RDFFormat)}.
@@ -102,6 +125,16 @@ public abstract class ClassBuilder
         load(filename, format);
     }
     
+    /**
+     * Creates a new class builder that uses an already built (and possibly shared) schema index.
+     * 
+     * @param schema the schema index
+     */
+    public ClassBuilder(SchemaIndex schema)
+    {
+        setSchemaIndex(schema);
+    }
+    
     /**
      * Loads an input model from the specified input file.
      * 
@@ -124,6 +157,64 @@ public abstract class ClassBuilder
      * @throws RDFParseException
      */
     public void load(String filename, RDFFormat format) throws IOException, RDFParseException
+    {
+        addModel(readFile(filename, format));
+        updateSchema();
+    }
+    
+    /**
+     * Loads the input model from multiple input files. The files are parsed in parallel
+     * and merged to a single model in the given order.
+     * 
+     * @param filenames input file specifications
+     * @param format input file format (see the {@link RDFFormat} constants) or {@code null} for automatic detection.
+     * @throws IOException
+     * @throws RDFParseException
+     */
+    public void load(List<String> filenames, RDFFormat format) throws IOException, RDFParseException
+    {
+        if (filenames.size() == 1)
+        {
+            load(filenames.get(0), format);
+            return;
+        }
+        
+        final int threads = Math.min(filenames.size(), Runtime.getRuntime().availableProcessors());
+        final ExecutorService exec = Executors.newFixedThreadPool(threads);
+        try
+        {
+            final List<Future<Model>> parsed = new ArrayList<>(filenames.size());
+            for (String filename : filenames)
+                parsed.add(exec.submit(() -> readFile(filename, format)));
+            for (Future<Model> result : parsed)
+            {
+                try {
+                    addModel(result.get());
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException) cause;
+                    else if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    else
+                        throw new IOException(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Loading interrupted");
+                }
+            }
+        }
+        finally
+        {
+            exec.shutdownNow();
+        }
+        updateSchema();
+    }
+    
+    /**
+     * Reads a single input file to a new model using the cache when configured.
+     */
+    private Model readFile(String filename, RDFFormat format) throws IOException, RDFParseException
     {
         Path file = Paths.get(filename);
         if (!Files.exists(file)) throw new FileNotFoundException(filename);
@@ -133,38 +224,137 @@ public abstract class ClassBuilder
             log.trace("detected input format from filename {}: {}", filename, format);
         }
 
-        try (final InputStream inputStream = Files.newInputStream(file)) {
-            log.trace("Loading input file");
-            Model newmodel = Rio.parse(inputStream, "", format);
-            if (model == null)
-                model = newmodel;
-            else
-                model.addAll(newmodel);
+        Model newmodel = null;
+        if (schemaCache != null && format != null)
+            newmodel = schemaCache.get(file, format, schemaOnly);
+        if (newmodel == null)
+        {
+            newmodel = parseFile(file, format);
+            if (schemaCache != null && format != null)
+                schemaCache.put(file, format, schemaOnly, newmodel);
         }
-        
-        // find local namespaces
-        localNamespaces = new HashSet<>();
-        for (Resource iri : findClasses())
+        return newmodel;
+    }
+    
+    private void addModel(Model newmodel)
+    {
+        if (model == null && schema != null)
+            model = new LinkedHashModel(schema.getModel()); //do not modify a shared model
+        if (model == null)
+            model = newmodel;
+        else
         {
-            if (iri instanceof IRI)
-                localNamespaces.add(((IRI) iri).getNamespace());
+            model.addAll(newmodel);
+            for (Namespace ns : newmodel.getNamespaces())
+            {
+                if (!model.getNamespace(ns.getPrefix()).isPresent())
+                    model.setNamespace(ns);
+            }
         }
-        log.debug("Local namespaces: {}", localNamespaces);
+    }
+    
+    /**
+     * Rebuilds the schema index and the local namespaces for the current model.
+     */
+    private void updateSchema()
+    {
+        schema = new SchemaIndex(model);
+        propertyDescriptors.clear();
     }
 
+    /**
+     * Parses an input file to a new model. When the schema-only loading is enabled, only the schema
+     * statements are kept.
+     * 
+     * @param file the input file
+     * @param format input file format or {@code null} when unknown
+     * @return the new model
+     * @throws IOException
+     * @throws RDFParseException
+     */
+    protected Model parseFile(Path file, RDFFormat format) throws IOException, RDFParseException
+    {
+        try (final InputStream inputStream = Files.newInputStream(file)) {
+            if (schemaOnly)
+            {
+                log.trace("Loading schema from input file");
+                if (format == null)
+                    throw new UnsupportedRDFormatException("Couldn't determine the format of " + file);
+                //the non-schema statements are discarded while parsing
+                final Model newmodel = new LinkedHashModel();
+                final SchemaFilterHandler handler = new SchemaFilterHandler(newmodel);
+                final RDFParser parser = Rio.createParser(format);
+                parser.setRDFHandler(handler);
+                parser.parse(inputStream, "");
+                log.debug("Kept {} of {} statements from {}", handler.getKeptCount(), handler.getTotalCount(), file);
+                return newmodel;
+            }
+            else
+            {
+                log.trace("Loading input file");
+                return Rio.parse(inputStream, "", format);
+            }
+        }
+    }
+
+    /**
+     * Gets the source model.
+     * @return the loaded model or the source model of a schema index set by
+     * {@link #setSchemaIndex(SchemaIndex)} (read-only).
+     */
     public Model getModel()
     {
-        return model;
+        return (model == null && schema != null) ? schema.getModel() : model;
+    }
+
+    /**
+     * Gets the schema index built for the loaded model.
+     * @return the schema index or {@code null} when no model has been loaded
+     */
+    public SchemaIndex getSchemaIndex()
+    {
+        return schema;
+    }
+
+    /**
+     * Discards the non-schema statements from the loaded model (see {@link SchemaFilterHandler}).
+     * This may be used for reducing the memory used during the generation when the complete model
+     * has already been loaded for other purposes. The loaded model itself is not modified; it is
+     * replaced by a new model and may be still used by the caller.
+     */
+    public void retainSchema()
+    {
+        if (model == null)
+            return;
+        final Model newmodel = new LinkedHashModel();
+        final SchemaFilterHandler handler = new SchemaFilterHandler(newmodel);
+        Rio.write(model, handler);
+        log.debug("Kept {} of {} statements", handler.getKeptCount(), handler.getTotalCount());
+        model = newmodel;
+        updateSchema();
+    }
+
+    /**
+     * Uses an already built schema index instead of loading the input files. The index may be shared
+     * by multiple builders that generate their outputs concurrently. Any previously loaded model
+     * is discarded.
+     * @param schema the schema index to use
+     */
+    public void setSchemaIndex(SchemaIndex schema)
+    {
+        this.schema = schema;
+        this.model = null;
+        propertyDescriptors.clear();
     }
 
     public Set<String> getLocalNamespaces()
     {
-        return localNamespaces;
+        return (schema == null) ? null : schema.getLocalNamespaces();
     }
     
     public boolean isLocalNamespace(String ns)
     {
-        return (localNamespaces != null) && localNamespaces.contains(ns);
+        return (schema != null) && schema.getLocalNamespaces().contains(ns);
     }
 
     /**
@@ -239,6 +429,68 @@ public abstract class ClassBuilder
         this.includePrefix = includePrefix;
     }
 
+    /**
+     * Checks whether the incremental generation is enabled.
+     * @return {@code true} when the incremental generation is enabled
+     */
+    public boolean isIncremental()
+    {
+        return incremental;
+    }
+
+    /**
+     * Enables or disables the incremental generation. In the incremental mode, a manifest is kept
+     * in the output directory and only the files whose inputs have changed are regenerated.
+     * Files with an unchanged content are not rewritten and the files generated for the classes
+     * that no longer exist are removed. Default is {@code false}.
+     * @param incremental {@code true} for incremental generation
+     */
+    public void setIncremental(boolean incremental)
+    {
+        this.incremental = incremental;
+    }
+
+    /**
+     * Checks whether only the schema statements are kept when loading the input files.
+     * @return {@code true} when the schema-only loading is enabled
+     */
+    public boolean isSchemaOnly()
+    {
+        return schemaOnly;
+    }
+
+    /**
+     * Enables or disables the schema-only loading. When enabled, the input files are parsed
+     * in a streaming way and only the statements used by the generators are stored
+     * (see {@link SchemaFilterHandler}). This considerably reduces the memory needed for the input files
+     * that contain instance data. It must be set before calling {@code load()}. Default is {@code false}.
+     * @param schemaOnly {@code true} for schema-only loading
+     */
+    public void setSchemaOnly(boolean schemaOnly)
+    {
+        this.schemaOnly = schemaOnly;
+    }
+
+    /**
+     * Gets the cache of the parsed input files.
+     * @return the cache or {@code null} when no cache is used
+     */
+    public SchemaCache getSchemaCache()
+    {
+        return schemaCache;
+    }
+
+    /**
+     * Sets the cache of the parsed input files. When set, {@code load()} reads the unchanged input files
+     * from the cache instead of parsing them. It must be set before calling {@code load()}.
+     * Default is {@code null} (no cache).
+     * @param schemaCache the cache to use or {@code null}
+     */
+    public void setSchemaCache(SchemaCache schemaCache)
+    {
+        this.schemaCache = schemaCache;
+    }
+
     /**
      * Gets the mapping of known data types to string names.
      * 
@@ -296,24 +548,162 @@ public abstract class ClassBuilder
      */
     public abstract void generate(Path outputDir) throws IOException;
     
-    //=======================================================================================================
-
-    protected Set<Resource> findClasses()
+    /**
+     * Writes a generated file. The I/O errors are reported as exceptions (a plain {@link PrintWriter}
+     * would swallow them).
+     * 
+     * @param file the output file path
+     * @param generator the code that generates the file contents
+     * @throws IOException
+     */
+    protected static void writeFile(Path file, Consumer<PrintWriter> generator) throws IOException
     {
-        final Set<Resource> classes = new HashSet<>();
-        Model types = getModel().filter(null, RDF.TYPE, null);
-        for (Statement st : types)
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
         {
-            if (classPredicates.contains(st.getObject()))
+            final PrintWriter out = new PrintWriter(writer);
+            generator.accept(out);
+            if (out.checkError()) //flushes the writer
+                throw new IOException("Couldn't write " + file);
+        }
+    }
+    
+    /**
+     * Gets the name of the manifest file used for the incremental generation.
+     * @return the manifest file name
+     */
+    protected String getManifestFileName()
+    {
+        return "." + getClass().getSimpleName() + ".manifest";
+    }
+    
+    /**
+     * Loads the generation manifest from the output directory. When the incremental generation
+     * is disabled, an empty manifest is returned.
+     * @param outputDir the output directory path
+     * @return the manifest
+     */
+    protected GenerationManifest loadManifest(Path outputDir)
+    {
+        if (incremental)
+            return GenerationManifest.load(outputDir.resolve(getManifestFileName()));
+        else
+            return new GenerationManifest();
+    }
+    
+    /**
+     * Finishes the incremental generation: removes the files recorded in the old manifest
+     * that have not been generated now and saves the new manifest.
+     * @param outputDir the output directory path
+     * @param oldManifest the manifest loaded before the generation
+     * @param newManifest the manifest of the generated files
+     * @throws IOException
+     */
+    protected void updateManifest(Path outputDir, GenerationManifest oldManifest, GenerationManifest newManifest) throws IOException
+    {
+        if (incremental)
+        {
+            for (String fname : oldManifest.getFileNames())
             {
-                if (includePrefix.isEmpty() || st.getSubject().toString().startsWith(includePrefix))
+                if (newManifest.getHash(fname) == null)
                 {
-                    //System.out.println("Add " + st.getSubject());
-                    classes.add(st.getSubject());
+                    log.info("Removing stale file {}", fname);
+                    Files.deleteIfExists(outputDir.resolve(fname));
                 }
             }
+            newManifest.save(outputDir.resolve(getManifestFileName()));
+        }
+    }
+    
+    /**
+     * Checks whether a file may be skipped in the incremental mode, i.e. the file exists and
+     * the inputs it has been generated from have not changed.
+     * @param outputDir the output directory path
+     * @param fname the file name
+     * @param hash the hash of the current inputs
+     * @param manifest the manifest loaded before the generation
+     * @return {@code true} when the file is up to date
+     */
+    protected boolean isUpToDate(Path outputDir, String fname, String hash, GenerationManifest manifest)
+    {
+        return incremental && hash.equals(manifest.getHash(fname)) && Files.isRegularFile(outputDir.resolve(fname));
+    }
+    
+    /**
+     * Describes the generator settings that influence the generated code. Used for computing
+     * the input hashes in the incremental mode. The subclasses should add their own settings.
+     * @param sb the string builder to append the description to
+     */
+    protected void describeSettings(StringBuilder sb)
+    {
+        sb.append("generator=").append(getClass().getName()).append('\n');
+        sb.append("version=").append(GENERATOR_VERSION).append('\n');
+        sb.append("indent=").append(getIndent()).append('\n');
+        sb.append("language=").append(getPreferredLanguage()).append('\n');
+        sb.append("vocab=").append(getVocabName()).append('\n');
+        sb.append("include=").append(getIncludePrefix()).append('\n');
+        sb.append("namespaces=").append(new TreeSet<>(getLocalNamespaces())).append('\n');
+    }
+    
+    /**
+     * Computes a hash of the part of the schema a class is generated from together with
+     * the generator settings.
+     * @param iri the class IRI
+     * @return the hash
+     */
+    protected String getClassInputHash(IRI iri)
+    {
+        final StringBuilder sb = new StringBuilder();
+        describeSettings(sb);
+        describeResource(iri, sb);
+        sb.append("super=").append(getSuperClass(iri)).append('\n');
+        for (IRI piri : findClassProperties(iri))
+        {
+            sb.append("property ");
+            describeProperty(piri, sb);
+        }
+        for (IRI piri : findClassProperties(iri, RDFS.RANGE))
+        {
+            sb.append("reverse ");
+            describeProperty(piri, sb);
+        }
+        return GenerationManifest.hash(sb.toString());
+    }
+    
+    private void describeProperty(IRI piri, StringBuilder sb)
+    {
+        describeResource(piri, sb);
+        sb.append(" domain=").append(schema.getDomain(piri));
+        sb.append(" range=").append(schema.getRange(piri));
+        sb.append(" functional=").append(isFunctionalProperty(piri));
+        sb.append(" inverseFunctional=").append(isInverseFunctionalProperty(piri)).append('\n');
+    }
+    
+    private void describeResource(IRI iri, StringBuilder sb)
+    {
+        sb.append(iri).append('\n');
+        for (IRI pred : LABEL_PROPERTIES)
+            sb.append(schema.getLiterals(iri, pred)).append('\n');
+        for (IRI pred : COMMENT_PROPERTIES)
+            sb.append(schema.getLiterals(iri, pred)).append('\n');
+        sb.append(getResourceSeeAlso(iri)).append('\n');
+    }
+    
+    //=======================================================================================================
+
+    /**
+     * Finds all the classes to be generated.
+     * @return the set of classes in a stable (lexical) order
+     */
+    protected Set<Resource> findClasses()
+    {
+        final List<Resource> classes = new ArrayList<>();
+        for (Resource cls : schema.getClasses())
+        {
+            if (includePrefix.isEmpty() || cls.toString().startsWith(includePrefix))
+                classes.add(cls);
         }
-        return classes;
+        classes.sort(SchemaIndex.VALUE_ORDER);
+        return new LinkedHashSet<>(classes);
     }
     
     protected String getClassName(IRI iri)
@@ -328,6 +718,9 @@ public abstract class ClassBuilder
     
     protected Set<IRI> findClassProperties(IRI classIRI, IRI predicate)
     {
+        if (RDFS.DOMAIN.equals(predicate) || RDFS.RANGE.equals(predicate))
+            return schema.getPropertiesReferencing(classIRI, predicate);
+        
         final Set<IRI> ret = new HashSet<>();
         for (IRI pred : PROPERTY_PROPERTIES)
         {
@@ -355,6 +748,9 @@ public abstract class ClassBuilder
      */
     protected Set<Value> getReferencedTypes(IRI propertyIri, IRI predicate)
     {
+        if (RDFS.DOMAIN.equals(predicate) || RDFS.RANGE.equals(predicate))
+            return schema.getReferencedTypes(propertyIri, predicate);
+        
         int cnt = 0; 
         Set<Value> ret = new HashSet<>();
         for (Statement st : getModel().filter(propertyIri, predicate, null))
@@ -424,7 +820,7 @@ public abstract class ClassBuilder
      */
     protected String getPropertyDataType(IRI iri)
     {
-        IRI range = getOptionalObjectIRI(getModel(), iri, RDFS.RANGE);
+        IRI range = schema.getRange(iri);
         String type = getDefaultType();
         if (range != null)
         {
@@ -446,19 +842,19 @@ public abstract class ClassBuilder
 
     protected String getPropertySourceType(IRI iri)
     {
-        IRI domain = getOptionalObjectIRI(getModel(), iri, RDFS.DOMAIN);
+        IRI domain = schema.getDomain(iri);
         return domain == null ? null : getObjectType(domain);
     }
 
     protected String getPropertySourceClass(IRI iri)
     {
-        IRI domain = getOptionalObjectIRI(getModel(), iri, RDFS.DOMAIN);
+        IRI domain = schema.getDomain(iri);
         return domain == null ? null : getClassName(domain);
     }
 
     protected String getPropertyClassification(IRI iri)
     {
-        IRI range = getOptionalObjectIRI(getModel(), iri, RDFS.RANGE);
+        IRI range = schema.getRange(iri);
         String type = "Value";
         if (range != null)
         {
@@ -480,30 +876,145 @@ public abstract class ClassBuilder
     
     protected boolean isFunctionalProperty(IRI iri)
     {
-        Model m = getModel().filter(iri, RDF.TYPE, OWL.FUNCTIONALPROPERTY);
-        return m.size() != 0;
+        return schema.isFunctionalProperty(iri);
     }
     
     protected boolean isInverseFunctionalProperty(IRI iri)
     {
-        Model m = getModel().filter(iri, RDF.TYPE, OWL.INVERSEFUNCTIONALPROPERTY);
-        return m.size() != 0;
+        return schema.isInverseFunctionalProperty(iri);
     }
     
     protected boolean isObjectOrCollectionProperty(IRI piri)
     {
-        return getPropertyClassification(piri).equals("Object")
-                ||  getPropertyClassification(piri).equals("Collection");
+        return getPropertyDescriptor(piri).isObjectOrCollection();
+    }
+    
+    /**
+     * Gets the resolved descriptor of a property. The descriptor is computed on the first use
+     * and cached until the schema changes.
+     * @param iri the property IRI
+     * @return the property descriptor
+     */
+    protected PropertyDescriptor getPropertyDescriptor(IRI iri)
+    {
+        return propertyDescriptors.computeIfAbsent(iri, this::createPropertyDescriptor);
+    }
+    
+    /**
+     * Gets the resolved descriptors of a set of properties.
+     * @param properties the property IRIs
+     * @return the list of descriptors in the order of the input properties
+     */
+    protected List<PropertyDescriptor> getPropertyDescriptors(Collection<IRI> properties)
+    {
+        final List<PropertyDescriptor> ret = new ArrayList<>(properties.size());
+        for (IRI piri : properties)
+            ret.add(getPropertyDescriptor(piri));
+        return ret;
+    }
+    
+    /**
+     * Resolves a property descriptor from the schema.
+     * @param iri the property IRI
+     * @return the new property descriptor
+     */
+    protected PropertyDescriptor createPropertyDescriptor(IRI iri)
+    {
+        return new PropertyDescriptor(iri,
+                getPropertyName(iri),
+                getPropertyDataType(iri),
+                getPropertyClassification(iri),
+                isFunctionalProperty(iri),
+                isInverseFunctionalProperty(iri),
+                schema.getDomain(iri),
+                schema.getRange(iri),
+                getPropertySourceType(iri),
+                getPropertySourceClass(iri),
+                getReversePropertyName(iri));
+    }
+    
+    protected IRI getSuperClass(IRI iri)
+    {
+        return schema.getSuperClass(iri);
+    }
+    
+    /**
+     * Gets the hierarchy of all the classes declared in the schema.
+     * @return the class hierarchy
+     */
+    protected ClassHierarchy getClassHierarchy()
+    {
+        return schema.getClassHierarchy();
+    }
+    
+    /**
+     * Checks whether a class is a direct or indirect subclass of another class.
+     * @param sub the subclass candidate
+     * @param sup the superclass candidate
+     * @return {@code true} when {@code sub} is a proper subclass of {@code sup}
+     */
+    protected boolean isSubclassOf(IRI sub, IRI sup)
+    {
+        return getClassHierarchy().isSubclassOf(sub, sup);
+    }
+    
+    /**
+     * Sorts the classes so that every class comes after all its superclasses. The resources
+     * that are not IRIs are skipped.
+     * @param classes the classes to sort
+     * @return the sorted list of class IRIs
+     */
+    protected List<IRI> sortClasses(Collection<Resource> classes)
+    {
+        final List<IRI> ret = new ArrayList<>(classes.size());
+        for (Resource cres : classes)
+        {
+            if (cres instanceof IRI)
+                ret.add((IRI) cres);
+            else
+                log.warn("Skipping resource {} -- not an IRI", cres);
+        }
+        return getClassHierarchy().sort(ret);
     }
     
     protected Literal getResourceTitle(IRI iri)
     {
-        return getFirstExistingObjectLiteral(getModel(), iri, getPreferredLanguage(), LABEL_PROPERTIES);
+        return getFirstExistingLiteral(iri, getPreferredLanguage(), LABEL_PROPERTIES);
     }
     
     protected Literal getResourceDescription(IRI iri)
     {
-        return getFirstExistingObjectLiteral(getModel(), iri, getPreferredLanguage(), COMMENT_PROPERTIES);
+        return getFirstExistingLiteral(iri, getPreferredLanguage(), COMMENT_PROPERTIES);
+    }
+    
+    protected Set<Value> getResourceSeeAlso(IRI iri)
+    {
+        return schema.getSeeAlso(iri);
+    }
+    
+    /**
+     * Finds the first literal of a resource in the schema index using a list of label or comment predicates.
+     * @param subject the resource
+     * @param lang the preferred language or {@code null}
+     * @param predicates the predicates to try (they must be included in the index)
+     * @return the literal or {@code null} when not found
+     */
+    protected Literal getFirstExistingLiteral(Resource subject, String lang, IRI... predicates)
+    {
+        for (IRI predicate : predicates)
+        {
+            Literal result = null;
+            for (Literal literal : schema.getLiterals(subject, predicate))
+            {
+                if (result == null || (lang != null
+                        && lang.equals(literal.getLanguage().orElse(null))))
+                {
+                    result = literal;
+                }
+            }
+            if (result != null) { return result; }
+        }
+        return null;
     }
     
     protected Literal getFirstExistingObjectLiteral(Model model, Resource subject, String lang, IRI... predicates)
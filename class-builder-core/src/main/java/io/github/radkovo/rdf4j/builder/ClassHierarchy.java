@@ -0,0 +1,291 @@
+/**
+ * ClassHierarchy.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A precomputed hierarchy of the classes declared in a schema. The classes are numbered
+ * in a topological order (every class comes after all its superclasses) and the transitive
+ * closure of the {@code rdfs:subClassOf} relation is stored as a bit set of ancestor numbers
+ * and a bit set of descendant numbers for each class. The hierarchy is immutable and may be
+ * shared by multiple threads.
+ */
+public class ClassHierarchy
+{
+    private static final Logger log = LoggerFactory.getLogger(ClassHierarchy.class);
+
+    /** The classes in the topological order */
+    private final List<Resource> classes;
+    /** Class to its number in the topological order */
+    private final Map<Resource, Integer> index;
+    /** Direct superclass numbers for each class */
+    private final int[][] parents;
+    /** Ancestor numbers (the transitive closure) for each class */
+    private final BitSet[] ancestors;
+    /** Descendant numbers (the inverse of {@link #ancestors}) for each class */
+    private final BitSet[] descendants;
+
+
+    /**
+     * Builds the hierarchy of all the classes declared in a schema.
+     * @param schema the schema index
+     */
+    public ClassHierarchy(SchemaIndex schema)
+    {
+        //number the classes in a stable order first
+        final List<Resource> input = new ArrayList<>(schema.getClasses());
+        input.sort(SchemaIndex.VALUE_ORDER);
+        final int n = input.size();
+        final Map<Resource, Integer> inputIndex = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++)
+            inputIndex.put(input.get(i), i);
+
+        //parent links restricted to the known classes and the reverse child links
+        final int[][] inputParents = new int[n][];
+        final int[] childCount = new int[n];
+        for (int i = 0; i < n; i++)
+        {
+            final Set<IRI> supers = schema.getSuperClasses(input.get(i));
+            final int[] plist = new int[supers.size()];
+            int cnt = 0;
+            for (IRI sup : supers)
+            {
+                final Integer pi = inputIndex.get(sup);
+                if (pi != null && pi != i)
+                {
+                    plist[cnt++] = pi;
+                    childCount[pi]++;
+                }
+            }
+            inputParents[i] = (cnt == plist.length) ? plist : Arrays.copyOf(plist, cnt);
+        }
+        final int[][] children = new int[n][];
+        for (int i = 0; i < n; i++)
+            children[i] = new int[childCount[i]];
+        final int[] fill = new int[n];
+        for (int i = 0; i < n; i++)
+            for (int p : inputParents[i])
+                children[p][fill[p]++] = i;
+
+        //Kahn's topological sort; the queue is processed in the input order so the result is stable
+        final int[] pending = new int[n];
+        final int[] queue = new int[n];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < n; i++)
+        {
+            pending[i] = inputParents[i].length;
+            if (pending[i] == 0)
+                queue[tail++] = i;
+        }
+        while (head < tail)
+        {
+            final int cur = queue[head++];
+            for (int child : children[cur])
+            {
+                if (--pending[child] == 0)
+                    queue[tail++] = child;
+            }
+        }
+        if (tail < n)
+        {
+            //cycles in the subclass relation; append the remaining classes in the input order
+            final List<Resource> cyclic = new ArrayList<>();
+            for (int i = 0; i < n; i++)
+            {
+                if (pending[i] > 0)
+                {
+                    queue[tail++] = i;
+                    cyclic.add(input.get(i));
+                }
+            }
+            log.warn("Cyclic subclass definitions found for {}", cyclic);
+        }
+
+        //renumber the classes in the topological order
+        final int[] order = new int[n];
+        classes = new ArrayList<>(n);
+        index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++)
+        {
+            final Resource cls = input.get(queue[i]);
+            order[queue[i]] = i;
+            classes.add(cls);
+            index.put(cls, i);
+        }
+        parents = new int[n][];
+        for (int i = 0; i < n; i++)
+        {
+            final int[] plist = inputParents[queue[i]];
+            parents[i] = new int[plist.length];
+            for (int j = 0; j < plist.length; j++)
+                parents[i][j] = order[plist[j]];
+        }
+
+        //transitive closure; the ancestors of all the superclasses are already computed
+        //(except for cycles where only the direct links are guaranteed)
+        ancestors = new BitSet[n];
+        for (int i = 0; i < n; i++)
+        {
+            final BitSet anc = new BitSet();
+            for (int p : parents[i])
+            {
+                anc.set(p);
+                if (ancestors[p] != null)
+                    anc.or(ancestors[p]);
+            }
+            ancestors[i] = anc;
+        }
+
+        //the descendants are obtained by inverting the closure
+        descendants = new BitSet[n];
+        for (int i = 0; i < n; i++)
+            descendants[i] = new BitSet();
+        for (int i = 0; i < n; i++)
+        {
+            final BitSet anc = ancestors[i];
+            for (int a = anc.nextSetBit(0); a >= 0; a = anc.nextSetBit(a + 1))
+            {
+                if (a != i)
+                    descendants[a].set(i);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of classes in the hierarchy.
+     * @return the number of classes
+     */
+    public int size()
+    {
+        return classes.size();
+    }
+
+    /**
+     * Gets all the classes in a topological order: every class comes after all its superclasses.
+     * @return the list of classes
+     */
+    public List<Resource> getClasses()
+    {
+        return Collections.unmodifiableList(classes);
+    }
+
+    /**
+     * Checks whether the given class is included in the hierarchy.
+     * @param cls the class
+     * @return {@code true} when the class is known
+     */
+    public boolean contains(Resource cls)
+    {
+        return index.containsKey(cls);
+    }
+
+    /**
+     * Gets the direct superclasses of a class that are included in the hierarchy.
+     * @param cls the class
+     * @return the set of superclasses (possibly empty)
+     */
+    public Set<Resource> getParents(Resource cls)
+    {
+        final Integer i = index.get(cls);
+        if (i == null)
+            return Collections.emptySet();
+        final Set<Resource> ret = new LinkedHashSet<>();
+        for (int p : parents[i])
+            ret.add(classes.get(p));
+        return ret;
+    }
+
+    /**
+     * Gets all the direct and indirect superclasses of a class.
+     * @param cls the class
+     * @return the set of superclasses in the topological order (possibly empty)
+     */
+    public Set<Resource> getAncestors(Resource cls)
+    {
+        final Integer i = index.get(cls);
+        if (i == null)
+            return Collections.emptySet();
+        return toSet(ancestors[i]);
+    }
+
+    /**
+     * Gets all the direct and indirect subclasses of a class.
+     * @param cls the class
+     * @return the set of subclasses in the topological order (possibly empty)
+     */
+    public Set<Resource> getDescendants(Resource cls)
+    {
+        final Integer i = index.get(cls);
+        if (i == null)
+            return Collections.emptySet();
+        return toSet(descendants[i]);
+    }
+
+    /**
+     * Checks whether a class is a direct or indirect subclass of another class.
+     * @param sub the subclass candidate
+     * @param sup the superclass candidate
+     * @return {@code true} when {@code sub} is a proper subclass of {@code sup}
+     */
+    public boolean isSubclassOf(Resource sub, Resource sup)
+    {
+        final Integer i = index.get(sub);
+        final Integer j = index.get(sup);
+        return (i != null && j != null && ancestors[i].get(j));
+    }
+
+    /**
+     * Sorts a collection of classes in the topological order. The resources that are not
+     * included in the hierarchy are placed at the end in their original order.
+     * @param list the classes to sort
+     * @return the sorted list
+     */
+    public <T extends Resource> List<T> sort(Collection<T> list)
+    {
+        final List<T> ret = new ArrayList<>(list.size());
+        final List<T> unknown = new ArrayList<>();
+        final Map<Integer, T> present = new HashMap<>(list.size() * 2);
+        final BitSet used = new BitSet(classes.size());
+        for (T cls : list)
+        {
+            final Integer i = index.get(cls);
+            if (i == null)
+                unknown.add(cls);
+            else
+            {
+                used.set(i);
+                present.put(i, cls);
+            }
+        }
+        for (int i = used.nextSetBit(0); i >= 0; i = used.nextSetBit(i + 1))
+            ret.add(present.get(i));
+        ret.addAll(unknown);
+        return ret;
+    }
+
+    private Set<Resource> toSet(BitSet bits)
+    {
+        final Set<Resource> ret = new LinkedHashSet<>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+            ret.add(classes.get(i));
+        return ret;
+    }
+
+}
@@ -0,0 +1,160 @@
+/**
+ * GenerationManifest.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A manifest of the generated files used for incremental generation. For each generated
+ * file, it stores a hash of all the inputs the file has been generated from (the relevant part
+ * of the schema and the generator settings). The manifest is stored in the output directory.
+ */
+public class GenerationManifest
+{
+    private static final Logger log = LoggerFactory.getLogger(GenerationManifest.class);
+
+    private static final String HEADER = "#class-builder manifest v1";
+
+    private final Map<String, String> hashes;
+
+
+    /**
+     * Creates an empty manifest.
+     */
+    public GenerationManifest()
+    {
+        hashes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the input hash recorded for a generated file.
+     * @param fileName the file name relative to the output directory
+     * @return the hash or {@code null} when the file is not recorded
+     */
+    public String getHash(String fileName)
+    {
+        return hashes.get(fileName);
+    }
+
+    /**
+     * Records the input hash for a generated file.
+     * @param fileName the file name relative to the output directory
+     * @param hash the input hash
+     */
+    public void setHash(String fileName, String hash)
+    {
+        hashes.put(fileName, hash);
+    }
+
+    /**
+     * Gets the names of all the recorded files.
+     * @return the set of file names
+     */
+    public Set<String> getFileNames()
+    {
+        return hashes.keySet();
+    }
+
+    //=======================================================================================================
+
+    /**
+     * Loads a manifest from a file. A missing or unreadable manifest is treated as empty.
+     * @param file the manifest file
+     * @return the loaded manifest
+     */
+    public static GenerationManifest load(Path file)
+    {
+        final GenerationManifest ret = new GenerationManifest();
+        if (Files.isRegularFile(file))
+        {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+            {
+                String line = in.readLine();
+                if (HEADER.equals(line))
+                {
+                    while ((line = in.readLine()) != null)
+                    {
+                        final int sep = line.indexOf('\t');
+                        if (sep > 0)
+                            ret.setHash(line.substring(sep + 1), line.substring(0, sep));
+                    }
+                }
+                else
+                    log.warn("Ignoring manifest {} -- unknown format", file);
+            } catch (IOException e) {
+                log.warn("Couldn't read manifest {}: {}", file, e.getMessage());
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Stores the manifest to a file. The records are sorted by the file name so that
+     * the file content does not change when the generated files do not change.
+     * @param file the manifest file
+     * @throws IOException
+     */
+    public void save(Path file) throws IOException
+    {
+        final StringBuilder sb = new StringBuilder(HEADER).append('\n');
+        for (Map.Entry<String, String> entry : new TreeMap<>(hashes).entrySet())
+            sb.append(entry.getValue()).append('\t').append(entry.getKey()).append('\n');
+        writeIfChanged(file, sb.toString());
+    }
+
+    //=======================================================================================================
+
+    /**
+     * Computes a hex-encoded SHA-256 hash of a string.
+     * @param data the string to hash
+     * @return the hash
+     */
+    public static String hash(String data)
+    {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            final byte[] digest = md.digest(data.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest)
+                sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); //SHA-256 is always available
+        }
+    }
+
+    /**
+     * Writes a string to a file unless the file already has exactly the same content.
+     * @param file the file to write
+     * @param content the new content
+     * @return {@code true} when the file has been written
+     * @throws IOException
+     */
+    public static boolean writeIfChanged(Path file, String content) throws IOException
+    {
+        final byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        if (Files.isRegularFile(file) && Files.size(file) == data.length
+                && Arrays.equals(Files.readAllBytes(file), data))
+        {
+            return false;
+        }
+        Files.write(file, data);
+        return true;
+    }
+
+}
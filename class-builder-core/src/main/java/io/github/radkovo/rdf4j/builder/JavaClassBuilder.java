@@ -5,17 +5,27 @@
  */
 package io.github.radkovo.rdf4j.builder;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
+import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.text.WordUtils;
 import org.atteo.evo.inflector.English;
 import org.eclipse.rdf4j.model.IRI;
@@ -26,6 +36,7 @@ import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
 import org.eclipse.rdf4j.rio.RDFFormat;
 import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.ntriples.NTriplesUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,9 +72,14 @@ public class JavaClassBuilder extends ClassBuilder
         javaDataTypes.put(XMLSchema.ANYURI, "java.net.URL");
     }
     
+    private static final Set<String> javaPrimitiveTypes = new HashSet<>(Arrays.asList(
+            "boolean", "byte", "short", "int", "long", "float", "double"));
+    
     //generation parametres
     private String packageName = null;
     private String vocabPackageName = null;
+    private int parallelism = 1;
+    private boolean lazyLoading = false;
     
     
     public JavaClassBuilder()
@@ -81,6 +97,11 @@ public class JavaClassBuilder extends ClassBuilder
         super(filename, format);
     }
 
+    public JavaClassBuilder(SchemaIndex schema)
+    {
+        super(schema);
+    }
+
     @Override
     protected Map<IRI, String> getDataTypes()
     {
@@ -147,6 +168,67 @@ public class JavaClassBuilder extends ClassBuilder
         this.vocabPackageName = vocabPackageName;
     }
 
+    /**
+     * Returns the number of worker threads used for generating the classes.
+     * @return The number of worker threads.
+     */
+    public int getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of worker threads used for generating the classes. The generated
+     * files are the same for any number of threads. Default is 1 (sequential generation).
+     * @param parallelism the number of worker threads (at least 1)
+     */
+    public void setParallelism(int parallelism)
+    {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Checks whether the generated classes load their object and collection properties lazily.
+     * @return {@code true} for lazy loading
+     */
+    public boolean isLazyLoading()
+    {
+        return lazyLoading;
+    }
+
+    /**
+     * Enables or disables lazy loading of the object and collection properties in the generated classes.
+     * With lazy loading, only the IRIs of the referenced entities are recorded while loading an entity
+     * and the entities are loaded from the source on the first call of the property getter. Default
+     * is {@code false} (the whole reachable graph is loaded at once).
+     * @param lazyLoading {@code true} for lazy loading
+     */
+    public void setLazyLoading(boolean lazyLoading)
+    {
+        this.lazyLoading = lazyLoading;
+    }
+
+    @Override
+    protected void describeSettings(StringBuilder sb)
+    {
+        super.describeSettings(sb);
+        sb.append("package=").append(getPackageName()).append('\n');
+        sb.append("vocabPackage=").append(getVocabPackageName()).append('\n');
+        sb.append("lazyLoading=").append(isLazyLoading()).append('\n');
+    }
+
+    @Override
+    protected String getClassInputHash(IRI iri)
+    {
+        //the generated query depends on the inherited properties too
+        final StringBuilder sb = new StringBuilder(super.getClassInputHash(iri)).append('\n');
+        for (IRI piri : getLoadedProperties(iri))
+            sb.append(piri).append('\n');
+        return GenerationManifest.hash(sb.toString());
+    }
+
     //=======================================================================================================
     
     @Override
@@ -159,19 +241,83 @@ public class JavaClassBuilder extends ClassBuilder
         Set<Resource> classes = findClasses();
         log.info("Found clases: {}", classes);
         
-        //generate the classes
-        for (Resource cres : classes)
+        final GenerationManifest oldManifest = loadManifest(outputDir);
+        final GenerationManifest newManifest = new GenerationManifest();
+        
+        //generate the classes, superclasses first
+        final List<IRI> classIRIs = sortClasses(classes);
+        if (parallelism > 1)
+            generateClassesParallel(classIRIs, outputDir, oldManifest, newManifest);
+        else
         {
-            if (cres instanceof IRI)
-                generateClass((IRI) cres, outputDir);
-            else
-                log.warn("Skipping resource {} -- not an IRI", cres);
+            for (IRI cres : classIRIs)
+                generateClass(cres, outputDir, oldManifest, newManifest);
         }
         
         //generate factory
-        generateFactory(classes, outputDir);
+        generateFactory(classes, outputDir, oldManifest, newManifest);
+        
+        updateManifest(outputDir, oldManifest, newManifest);
     }
 
+    /**
+     * Generates the given classes concurrently using a fork-join pool with the configured parallelism.
+     * All the classes are attempted; the failures are reported together when the generation is finished.
+     * 
+     * @param classes the classes to generate
+     * @param outputDir output directory path
+     * @param oldManifest the manifest of the previous generation
+     * @param newManifest the manifest to record the generated files to
+     * @throws IOException when some of the classes could not be generated
+     */
+    protected void generateClassesParallel(List<IRI> classes, Path outputDir,
+            GenerationManifest oldManifest, GenerationManifest newManifest) throws IOException
+    {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            final List<ForkJoinTask<?>> tasks = new ArrayList<>(classes.size());
+            for (IRI cres : classes)
+            {
+                tasks.add(pool.submit(() -> {
+                    generateClass(cres, outputDir, oldManifest, newManifest);
+                    return null;
+                }));
+            }
+            
+            final List<Throwable> errors = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++)
+            {
+                try {
+                    tasks.get(i).get();
+                } catch (ExecutionException e) {
+                    //the fork-join tasks wrap the checked exceptions to plain runtime exceptions
+                    Throwable cause = e.getCause();
+                    while (cause.getClass() == RuntimeException.class && cause.getCause() != null)
+                        cause = cause.getCause();
+                    log.error("Couldn't generate {}: {}", classes.get(i), cause.getMessage());
+                    errors.add(cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Class generation interrupted");
+                }
+            }
+            
+            if (!errors.isEmpty())
+            {
+                final IOException e = new IOException("Failed to generate " + errors.size() + " of "
+                        + classes.size() + " classes");
+                for (Throwable cause : errors)
+                    e.addSuppressed(cause);
+                throw e;
+            }
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+    }
+    
     //=======================================================================================================
     
     /**
@@ -183,11 +329,48 @@ public class JavaClassBuilder extends ClassBuilder
      */
     public void generateFactory(Set<Resource> classes, Path outputDir) throws IOException
     {
-        String fname = getFactoryName();
-        File outfile = new File(outputDir.toFile(), fname + ".java");
-        PrintWriter out = new PrintWriter(outfile);
-        generateFactory(classes, fname, out);
-        out.close();
+        final String fname = getFactoryName();
+        writeFile(outputDir.resolve(fname + ".java"), out -> generateFactory(classes, fname, out));
+    }
+    
+    private void generateFactory(Set<Resource> classes, Path outputDir,
+            GenerationManifest oldManifest, GenerationManifest newManifest) throws IOException
+    {
+        if (isIncremental())
+        {
+            final String fname = getFactoryName();
+            final String fileName = fname + ".java";
+            final StringBuilder sb = new StringBuilder();
+            describeSettings(sb);
+            for (Resource cres : classes)
+            {
+                sb.append(cres);
+                //the subclass lists depend on the superclass chains
+                if (cres instanceof IRI)
+                {
+                    final Set<IRI> visited = new HashSet<>(); //guards against cycles
+                    IRI sup = getSuperClass((IRI) cres);
+                    while (sup != null && visited.add(sup))
+                    {
+                        sb.append(" < ").append(sup);
+                        sup = getSuperClass(sup);
+                    }
+                }
+                sb.append('\n');
+            }
+            final String hash = GenerationManifest.hash(sb.toString());
+            newManifest.setHash(fileName, hash);
+            if (!isUpToDate(outputDir, fileName, hash, oldManifest))
+            {
+                final StringWriter sw = new StringWriter();
+                final PrintWriter out = new PrintWriter(sw);
+                generateFactory(classes, fname, out);
+                out.close();
+                GenerationManifest.writeIfChanged(outputDir.resolve(fileName), sw.toString());
+            }
+        }
+        else
+            generateFactory(classes, outputDir);
     }
     
     /**
@@ -206,8 +389,12 @@ public class JavaClassBuilder extends ClassBuilder
             out.printf("package %s;\n\n", getPackageName());
         
         //imports
+        out.println("import java.util.Arrays;");
+        out.println("import java.util.Collections;");
+        out.println("import java.util.List;");
         out.println("import org.eclipse.rdf4j.model.IRI;");
         out.println("import io.github.radkovo.rdf4j.builder.EntityFactory;");
+        out.println("import io.github.radkovo.rdf4j.builder.RDFEntity;");
         out.println();
         
         //generate interface
@@ -222,6 +409,71 @@ public class JavaClassBuilder extends ClassBuilder
                 out.printf(getIndent(1) + "public %s create%s(IRI iri);\n", cname, cname);
             }
         }
+        out.println();
+        
+        //generic creation by the class IRI
+        out.println(getIndent(1) + "@Override");
+        out.println(getIndent(1) + "public default RDFEntity createEntity(IRI classIRI, IRI iri) {");
+        out.println(getIndent(2) + "switch (classIRI.stringValue()) {");
+        for (Resource cres : classes)
+        {
+            if (cres instanceof IRI)
+            {
+                out.printf(getIndent(3) + "case \"%s\":\n", StringEscapeUtils.escapeJava(cres.stringValue()));
+                out.printf(getIndent(4) + "return create%s(iri);\n", getClassName((IRI) cres));
+            }
+        }
+        out.println(getIndent(3) + "default:");
+        out.println(getIndent(4) + "return null;");
+        out.println(getIndent(2) + "}");
+        out.println(getIndent(1) + "}");
+        out.println();
+        
+        //subclasses known at generation time
+        out.println(getIndent(1) + "@Override");
+        out.println(getIndent(1) + "public default List<IRI> getSubclassIRIs(IRI classIRI) {");
+        out.println(getIndent(2) + "switch (classIRI.stringValue()) {");
+        for (Resource cres : classes)
+        {
+            if (cres instanceof IRI)
+            {
+                final List<IRI> subclasses = findJavaSubclasses((IRI) cres, classes);
+                if (!subclasses.isEmpty())
+                {
+                    final StringBuilder sb = new StringBuilder();
+                    for (IRI sub : subclasses)
+                    {
+                        if (sb.length() > 0)
+                            sb.append(", ");
+                        sb.append(getClassName(sub)).append(".CLASS_IRI");
+                    }
+                    out.printf(getIndent(3) + "case \"%s\":\n", StringEscapeUtils.escapeJava(cres.stringValue()));
+                    out.printf(getIndent(4) + "return Arrays.asList(%s);\n", sb);
+                }
+            }
+        }
+        out.println(getIndent(3) + "default:");
+        out.println(getIndent(4) + "return Collections.emptyList();");
+        out.println(getIndent(2) + "}");
+        out.println(getIndent(1) + "}");
+        out.println();
+        
+        //queries for fetching the entities from a repository
+        out.println(getIndent(1) + "@Override");
+        out.println(getIndent(1) + "public default String getConstructQuery(IRI classIRI) {");
+        out.println(getIndent(2) + "switch (classIRI.stringValue()) {");
+        for (Resource cres : classes)
+        {
+            if (cres instanceof IRI)
+            {
+                out.printf(getIndent(3) + "case \"%s\":\n", StringEscapeUtils.escapeJava(cres.stringValue()));
+                out.printf(getIndent(4) + "return %s.CONSTRUCT_QUERY;\n", getClassName((IRI) cres));
+            }
+        }
+        out.println(getIndent(3) + "default:");
+        out.println(getIndent(4) + "return null;");
+        out.println(getIndent(2) + "}");
+        out.println(getIndent(1) + "}");
         
         //end of interface
         out.println("}");
@@ -232,6 +484,37 @@ public class JavaClassBuilder extends ClassBuilder
         return getVocabName() + "Factory";
     }
     
+    /**
+     * Finds the generated classes that extend the given class, the most specific classes first.
+     * Only the subclasses whose generated superclass chain leads to the class are considered
+     * (for multiple inheritance, the generated class extends a single superclass only).
+     * 
+     * @param cls the class IRI
+     * @param classes all the generated classes
+     * @return the list of subclasses
+     */
+    protected List<IRI> findJavaSubclasses(IRI cls, Set<Resource> classes)
+    {
+        final List<Resource> candidates = new ArrayList<>();
+        for (Resource sub : getClassHierarchy().getDescendants(cls))
+        {
+            if (sub instanceof IRI && classes.contains(sub))
+            {
+                final Set<IRI> visited = new HashSet<>(); //guards against cycles
+                IRI sup = getSuperClass((IRI) sub);
+                while (sup != null && !sup.equals(cls) && visited.add(sup))
+                    sup = getSuperClass(sup);
+                if (sup != null && !sup.equals(cls))
+                    sup = null;
+                if (sup != null)
+                    candidates.add(sub);
+            }
+        }
+        final List<IRI> ret = sortClasses(candidates);
+        Collections.reverse(ret);
+        return ret;
+    }
+    
     //=======================================================================================================
     
     /**
@@ -243,11 +526,33 @@ public class JavaClassBuilder extends ClassBuilder
      */
     public void generateClass(IRI cres, Path outputDir) throws IOException
     {
-        String className = getClassName(cres);
-        File outfile = new File(outputDir.toFile(), className + ".java");
-        PrintWriter out = new PrintWriter(outfile);
-        generateClass(cres, className, out);
-        out.close();
+        final String className = getClassName(cres);
+        writeFile(outputDir.resolve(className + ".java"), out -> generateClass(cres, className, out));
+    }
+    
+    private void generateClass(IRI cres, Path outputDir,
+            GenerationManifest oldManifest, GenerationManifest newManifest) throws IOException
+    {
+        if (isIncremental())
+        {
+            final String className = getClassName(cres);
+            final String fileName = className + ".java";
+            final String hash = getClassInputHash(cres);
+            newManifest.setHash(fileName, hash);
+            if (isUpToDate(outputDir, fileName, hash, oldManifest))
+            {
+                log.debug("{} is up to date", className);
+                return;
+            }
+            final StringWriter sw = new StringWriter();
+            final PrintWriter out = new PrintWriter(sw);
+            generateClass(cres, className, out);
+            out.close();
+            if (!GenerationManifest.writeIfChanged(outputDir.resolve(fileName), sw.toString()))
+                log.debug("{} has not changed", className);
+        }
+        else
+            generateClass(cres, outputDir);
     }
     
     /**
@@ -262,24 +567,25 @@ public class JavaClassBuilder extends ClassBuilder
         log.info("Generating {}", className);
         
         //some statistics
-        Set<IRI> properties = findClassProperties(iri);
-        Set<IRI> revProperties = findClassProperties(iri, RDFS.RANGE); //reverse properties
+        final List<PropertyDescriptor> properties = getPropertyDescriptors(findClassProperties(iri));
+        final List<PropertyDescriptor> revProperties = new ArrayList<>(); //reverse properties
+        for (PropertyDescriptor prop : getPropertyDescriptors(findClassProperties(iri, RDFS.RANGE)))
+        {
+            //inverse functional properties are ignored for now, we map collections only
+            if (prop.hasReverseCollection())
+                revProperties.add(prop);
+        }
         log.debug("   properties: {}", properties);
         boolean somePropertiesNotFunctional = false;
-        boolean someCollections = false;
+        boolean someCollections = !revProperties.isEmpty();
         boolean someObjects = false;
-        for (IRI piri : properties)
+        for (PropertyDescriptor prop : properties)
         {
-            if (!isFunctionalProperty(piri))
+            if (!prop.isFunctional())
                 somePropertiesNotFunctional = true;
-            if (getPropertyClassification(piri).equals("Object"))
+            if (prop.isObject())
                 someObjects = true;
-            if (getPropertyClassification(piri).equals("Collection"))
-                someCollections = true;
-        }
-        for (IRI piri : revProperties)
-        {
-            if (isObjectOrCollectionProperty(piri) && !isInverseFunctionalProperty(piri))
+            if (prop.isCollection())
                 someCollections = true;
         }
         
@@ -290,12 +596,26 @@ public class JavaClassBuilder extends ClassBuilder
         //imports
         if (somePropertiesNotFunctional || someCollections || someObjects)
             out.println("import java.util.Set;");
-        if (someCollections)
+        if (!revProperties.isEmpty())
             out.println("import java.util.HashSet;");
+        boolean useFactory = false;
+        for (PropertyDescriptor prop : properties)
+            useFactory = useFactory || prop.isObjectOrCollection();
+        out.println("import java.util.List;");
+        if (lazyLoading && properties.stream().anyMatch(PropertyDescriptor::isCollection))
+            out.println("import java.util.ArrayList;");
         out.println("import org.eclipse.rdf4j.model.IRI;");
         out.println("import org.eclipse.rdf4j.model.Model;");
-        out.println("import io.github.radkovo.rdf4j.builder.EntityFactory;");
+        if (!properties.isEmpty())
+            out.println("import org.eclipse.rdf4j.model.Value;");
+        if (useFactory)
+            out.println("import io.github.radkovo.rdf4j.builder.EntityFactory;");
+        out.println("import io.github.radkovo.rdf4j.builder.EntitySource;");
+        if (!properties.isEmpty())
+            out.println("import io.github.radkovo.rdf4j.builder.LoadContext;");
         out.println("import io.github.radkovo.rdf4j.builder.TargetModel;");
+        if (properties.stream().anyMatch(PropertyDescriptor::isCollection))
+            out.println("import io.github.radkovo.rdf4j.builder.TrackedSet;");
         if (getVocabPackageName() != null && getVocabName() != null)
             out.printf("import %s.%s;\n", getVocabPackageName(), getVocabName());
         out.println();
@@ -304,7 +624,7 @@ public class JavaClassBuilder extends ClassBuilder
 
         //super class
         String superClass = DEFAULT_SUPERCLASS;
-        IRI superClassIRI = getOptionalObjectIRI(getModel(), iri, RDFS.SUBCLASSOF);
+        IRI superClassIRI = getSuperClass(iri);
         if (superClassIRI != null)
         {
             superClass = getClassName(superClassIRI);
@@ -315,19 +635,15 @@ public class JavaClassBuilder extends ClassBuilder
         
         //namespace IRI
         out.printf(getIndent(1) + "public static final IRI CLASS_IRI = vf.createIRI(\"%s\");\n\n", iri);
+        generateQuery(iri, out);
+        out.println();
         
         //generate properties
-        for (IRI piri : properties)
-            generatePropertyDeclaration(piri, getPropertyName(piri), out);
+        for (PropertyDescriptor prop : properties)
+            generatePropertyDeclaration(prop, out);
         //reverse property declarations
-        for (IRI piri : revProperties)
-        {
-            //log.debug("CLASS {} : {}", piri, getPropertyClassification(piri));
-            if (isObjectOrCollectionProperty(piri) && !isInverseFunctionalProperty(piri))
-            {
-                generateReverseCollectionDeclaration(piri, getPropertyName(piri), getPropertySourceType(piri), out);
-            }
-        }
+        for (PropertyDescriptor prop : revProperties)
+            generateReverseCollectionDeclaration(prop, out);
         out.println();
         
         //constructors
@@ -335,84 +651,116 @@ public class JavaClassBuilder extends ClassBuilder
         out.println();
         generateDefaultMethods(className, out);
         out.println();
+        generateBulkLoader(className, out);
+        out.println();
         
         //getters and setters
-        for (IRI piri : properties)
+        for (PropertyDescriptor prop : properties)
         {
-            generatePropertyGetter(piri, getPropertyName(piri), out);
+            generatePropertyGetter(prop, out);
             out.println();
-            if (isFunctionalProperty(piri)) //omit setters for non-functional properties (collections)
+            if (!prop.isCollection()) //the collections record their changes themselves
             {
-                generatePropertySetter(piri, getPropertyName(piri), out);
+                generatePropertySetter(prop, out);
                 out.println();
             }
         }
         
         //adders for reverse 1:N properties
-        for (IRI piri : revProperties)
+        for (PropertyDescriptor prop : revProperties)
         {
-            if (isObjectOrCollectionProperty(piri) && !isInverseFunctionalProperty(piri))
-            {
-                generateRevPropertyGetterAdder(piri, getPropertyName(piri), getPropertySourceType(piri), out);
-                out.println();
-            }
+            generateRevPropertyGetterAdder(prop, out);
+            out.println();
         }
         
         //generate addToModel
         generateAddToModel(properties, revProperties, out);
         out.println();
-        generateLoadFromModel(properties, out, someCollections || someObjects);
+        generateAddReferences(properties, revProperties, out);
+        generateLoadFromModel(properties, out, useFactory);
         
         //finish class definition
         out.println("}");
     }
 
-    protected void generatePropertyDeclaration(IRI iri, String propertyName, PrintWriter out)
+    protected void generatePropertyDeclaration(PropertyDescriptor prop, PrintWriter out)
     {
-        generateJavadoc(iri, out, 1);
-        String type = getPropertyDataType(iri);
-        out.printf(getIndent(1) + "private %s %s;\n", type, propertyName);
+        generateJavadoc(prop.getIRI(), out, 1);
+        if (prop.isCollection())
+            out.printf(getIndent(1) + "private TrackedSet<%s> %s;\n", getEntityType(prop), prop.getName());
+        else
+            out.printf(getIndent(1) + "private %s %s;\n", prop.getDataType(), prop.getName());
         out.println();
+        if (isLazy(prop))
+        {
+            out.printf(getIndent(1) + "/** Pending references of {@code %s}, resolved on first access. */\n", prop.getName());
+            if (prop.isCollection())
+                out.printf(getIndent(1) + "private List<IRI> %s;\n", getPendingName(prop));
+            else
+                out.printf(getIndent(1) + "private IRI %s;\n", getPendingName(prop));
+            out.println();
+        }
     }
 
-    protected void generateReverseCollectionDeclaration(IRI iri, String propertyName, String propertyType, PrintWriter out)
+    protected void generateReverseCollectionDeclaration(PropertyDescriptor prop, PrintWriter out)
     {
-        String varName = getReversePropertyName(iri);
+        String varName = prop.getReverseName();
         if (varName != null)
         {
-            out.printf(getIndent(1) + "/** Inverse collection for %s.%s. */\n", propertyType, propertyName);
-            out.printf(getIndent(1) + "private Set<%s> %s;\n", propertyType, varName);
+            out.printf(getIndent(1) + "/** Inverse collection for %s.%s. */\n", prop.getSourceType(), prop.getName());
+            out.printf(getIndent(1) + "private Set<%s> %s;\n", prop.getSourceType(), varName);
             out.println();
         }
         else
         {
-            log.warn("Skipped inverse collection for {} -- couldn't determine its source class", iri);
+            log.warn("Skipped inverse collection for {} -- couldn't determine its source class", prop.getIRI());
         }
     }
     
-    protected void generatePropertyGetter(IRI iri, String propertyName, PrintWriter out)
+    protected void generatePropertyGetter(PropertyDescriptor prop, PrintWriter out)
     {
+        String propertyName = prop.getName();
         String name = "get" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
-        String type = getPropertyDataType(iri);
-        out.printf(getIndent(1) + "public %s %s() {\n", type, name);
+        out.printf(getIndent(1) + "public %s %s() {\n", prop.getDataType(), name);
+        if (isLazy(prop))
+        {
+            //resolve the pending references on first access
+            final String pending = getPendingName(prop);
+            final String etype = getEntityType(prop);
+            out.printf(getIndent(2) + "if (%s != null) {\n", pending);
+            if (prop.isCollection())
+            {
+                out.printf(getIndent(3) + "for (IRI iri : %s)\n", pending);
+                out.printf(getIndent(4) + "%s.addLoaded(resolveEntity(iri, %s.class, factory(getLoadContext())::create%s));\n", propertyName, etype, etype);
+            }
+            else
+                out.printf(getIndent(3) + "%s = resolveEntity(%s, %s.class, factory(getLoadContext())::create%s);\n", propertyName, pending, etype, etype);
+            out.printf(getIndent(3) + "%s = null;\n", pending);
+            out.println(getIndent(2) + "}");
+        }
         out.printf(getIndent(2) + "return %s;\n", propertyName);
         out.println(getIndent(1) + "}");
     }
 
-    protected void generatePropertySetter(IRI iri, String propertyName, PrintWriter out)
+    protected void generatePropertySetter(PropertyDescriptor prop, PrintWriter out)
     {
+        String propertyName = prop.getName();
         String name = "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
-        String type = getPropertyDataType(iri);
-        out.printf(getIndent(1) + "public void %s(%s %s) {\n", name, type, propertyName);
+        out.printf(getIndent(1) + "public void %s(%s %s) {\n", name, prop.getDataType(), propertyName);
         out.printf(getIndent(2) + "this.%s = %s;\n", propertyName, propertyName);
+        if (isLazy(prop))
+            out.printf(getIndent(2) + "this.%s = null;\n", getPendingName(prop));
+        out.printf(getIndent(2) + "markDirty(%s.%s);\n", getVocabName(), propertyName);
         out.println(getIndent(1) + "}");
     }
 
-    protected void generateRevPropertyGetterAdder(IRI iri, String propertyName, String propertyType, PrintWriter out)
+    protected void generateRevPropertyGetterAdder(PropertyDescriptor prop, PrintWriter out)
     {
-        String varName = getReversePropertyName(iri);
+        String varName = prop.getReverseName();
         if (varName != null)
         {
+            String propertyName = prop.getName();
+            String propertyType = prop.getSourceType();
             String adderName = "add" + propertyType;
             String paramName = propertyType.substring(0, 1).toLowerCase() + propertyType.substring(1);
             String getterName = "get" + English.plural(propertyType);
@@ -426,7 +774,7 @@ public class JavaClassBuilder extends ClassBuilder
             out.printf(getIndent(1) + "public void %s(%s %s) {\n", adderName, propertyType, paramName);
             out.printf(getIndent(2) + "if (%s == null) %s = new HashSet<>();\n", varName, varName);
             out.printf(getIndent(2) + "%s.add(%s);\n", varName, paramName);
-            if (getPropertyClassification(iri).equals("Object"))
+            if (prop.isObject())
             {
                 String otherSetter = "set" + propertyName.substring(0, 1).toUpperCase() + propertyName.substring(1);
                 out.printf(getIndent(2) + "%s.%s(this);\n", paramName, otherSetter);
@@ -440,29 +788,21 @@ public class JavaClassBuilder extends ClassBuilder
         }
     }
 
-    protected void generateConstructors(String className, Set<IRI> properties, Set<IRI> revProperties, PrintWriter out)
+    protected void generateConstructors(String className, List<PropertyDescriptor> properties, List<PropertyDescriptor> revProperties, PrintWriter out)
     {
         out.printf(getIndent(1) + "public %s(IRI iri) {\n", className);
         out.println(getIndent(2)+ "super(iri);");
         //Property initialization - create collections
-        for (IRI piri : properties)
+        for (PropertyDescriptor prop : properties)
         {
-            if (getPropertyClassification(piri).equals("Collection"))
-            {
-                String propertyName = getPropertyName(piri);
-                String propertyType = getPropertyDataType(piri);
-                out.printf(getIndent(2) + "%s = new Hash%s();\n", propertyName, propertyType);
-            }
+            if (prop.isCollection())
+                out.printf(getIndent(2) + "%s = new TrackedSet<>(this, %s.%s);\n", prop.getName(), getVocabName(), prop.getName());
         }
         //reverse property initialization
-        for (IRI piri : revProperties)
+        for (PropertyDescriptor prop : revProperties)
         {
-            if (isObjectOrCollectionProperty(piri) && !isInverseFunctionalProperty(piri))
-            {
-                String propertyName = getReversePropertyName(piri);
-                if (propertyName != null)
-                    out.printf(getIndent(2) + "%s = new HashSet<>();\n", propertyName);
-            }
+            if (prop.getReverseName() != null)
+                out.printf(getIndent(2) + "%s = new HashSet<>();\n", prop.getReverseName());
         }
         
         out.println(getIndent(1)+ "}");
@@ -481,87 +821,271 @@ public class JavaClassBuilder extends ClassBuilder
         out.println(getIndent(1) + "}");
     }
     
-    protected void generateAddToModel(Collection<IRI> properties, Collection<IRI> revProperties, PrintWriter out)
+    /**
+     * Generates a SPARQL query that fetches the statements of the given entities loaded by the class
+     * (i.e. the values of all its properties including the inherited ones). The entity IRIs are bound
+     * to {@code ?s} by a {@code VALUES} clause appended to the query.
+     */
+    protected void generateQuery(IRI iri, PrintWriter out)
+    {
+        final StringBuilder sb = new StringBuilder("CONSTRUCT { ?s ?p ?o } WHERE { VALUES ?p {");
+        for (IRI piri : getLoadedProperties(iri))
+            sb.append(' ').append(NTriplesUtil.toNTriplesString(piri));
+        sb.append(" } ?s ?p ?o }");
+        out.println(getIndent(1) + "/** The query that fetches the statements loaded by this class, the subjects are bound by a trailing VALUES clause. */");
+        out.printf(getIndent(1) + "public static final String CONSTRUCT_QUERY = \"%s\";\n", StringEscapeUtils.escapeJava(sb.toString()));
+    }
+    
+    /**
+     * Generates the static methods that load all the instances of the class from a model.
+     */
+    protected void generateBulkLoader(String className, PrintWriter out)
+    {
+        //the name contains the class name so that the methods do not hide each other in subclasses
+        final String name = "loadAll" + English.plural(className);
+        final String factory = getFactoryName();
+        out.println(getIndent(1) + "/**");
+        out.printf(getIndent(1) + " * Loads all the instances of %s from a model.\n", className);
+        out.println(getIndent(1) + " */");
+        out.printf(getIndent(1) + "public static List<%s> %s(Model model, %s factory) {\n", className, name, factory);
+        out.printf(getIndent(2) + "return %s(model, factory, false);\n", name);
+        out.println(getIndent(1) + "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.printf(getIndent(1) + " * Loads all the instances of %s from a model, optionally including the instances of its subclasses.\n", className);
+        out.println(getIndent(1) + " */");
+        out.printf(getIndent(1) + "public static List<%s> %s(Model model, %s factory, boolean includeSubclasses) {\n", className, name, factory);
+        out.printf(getIndent(2) + "return factory.loadAll(model, CLASS_IRI, %s.class, includeSubclasses);\n", className);
+        out.println(getIndent(1) + "}");
+        out.println();
+        out.println(getIndent(1) + "/**");
+        out.printf(getIndent(1) + " * Loads all the instances of %s from an entity source (e.g. an {@link io.github.radkovo.rdf4j.builder.EntityIndex}).\n", className);
+        out.println(getIndent(1) + " */");
+        out.printf(getIndent(1) + "public static List<%s> %s(EntitySource source, %s factory, boolean includeSubclasses) {\n", className, name, factory);
+        out.printf(getIndent(2) + "return factory.loadAll(source, CLASS_IRI, %s.class, includeSubclasses);\n", className);
+        out.println(getIndent(1) + "}");
+    }
+    
+    protected void generateAddToModel(Collection<PropertyDescriptor> properties, Collection<PropertyDescriptor> revProperties, PrintWriter out)
     {
         out.println(getIndent(1) + "@Override");
         out.println(getIndent(1) + "public void addToModel(TargetModel target) {");
         out.println(getIndent(2) + "super.addToModel(target);");
         
-        for (IRI piri : properties)
+        for (PropertyDescriptor prop : properties)
         {
             out.print(getIndent(2));
-            String name = getPropertyName(piri);
-            String type = getPropertyClassification(piri);
-            out.printf("add%s(target, %s.%s, %s);\n", type, getVocabName(), name, name);
+            String name = prop.getName();
+            //the lazy properties must be resolved before storing
+            String value = isLazy(prop) ? "get" + name.substring(0, 1).toUpperCase() + name.substring(1) + "()" : name;
+            out.printf("add%s(target, %s.%s, %s);\n", prop.getClassification(), getVocabName(), name, value);
         }
-        for (IRI piri : revProperties)
+        for (PropertyDescriptor prop : revProperties)
         {
-            if (isObjectOrCollectionProperty(piri) && !isInverseFunctionalProperty(piri))
-            {
-                String varName = getReversePropertyName(piri);
-                if (varName != null)
-                    out.printf(getIndent(2) + "target.addAll(%s);\n", varName);
-            }
+            if (prop.getReverseName() != null)
+                out.printf(getIndent(2) + "target.addAll(%s);\n", prop.getReverseName());
         }
         
         out.println(getIndent(1)+ "}");
     }
     
-    protected void generateLoadFromModel(Collection<IRI> properties, PrintWriter out, boolean useFactory)
+    protected void generateAddReferences(Collection<PropertyDescriptor> properties, Collection<PropertyDescriptor> revProperties, PrintWriter out)
     {
+        if (properties.stream().noneMatch(PropertyDescriptor::isObjectOrCollection)
+                && revProperties.stream().allMatch(prop -> prop.getReverseName() == null))
+            return; //no references, the inherited method is used
         out.println(getIndent(1) + "@Override");
-        out.printf(getIndent(1) + "public void loadFromModel(Model model, EntityFactory efactory) {\n");
-        out.println(getIndent(2) + "super.loadFromModel(model, efactory);");
-
+        out.println(getIndent(1) + "public void addReferences(TargetModel target) {");
+        out.println(getIndent(2) + "super.addReferences(target);");
+        //the fields are used so that the pending lazy references are not resolved
+        for (PropertyDescriptor prop : properties)
+        {
+            if (prop.isObject())
+                out.printf(getIndent(2) + "if (%s != null) target.add(%s);\n", prop.getName(), prop.getName());
+            else if (prop.isCollection())
+                out.printf(getIndent(2) + "target.addAll(%s);\n", prop.getName());
+        }
+        for (PropertyDescriptor prop : revProperties)
+        {
+            if (prop.getReverseName() != null)
+                out.printf(getIndent(2) + "target.addAll(%s);\n", prop.getReverseName());
+        }
+        out.println(getIndent(1) + "}");
+        out.println();
+    }
+    
+    protected void generateLoadFromModel(Collection<PropertyDescriptor> properties, PrintWriter out, boolean useFactory)
+    {
+        if (properties.isEmpty())
+            return; //nothing to load, the inherited loader is used
+        generateResetProperties(properties, out);
+        out.println();
+        
+        //a single pass over the subject statements dispatched on the predicate
+        out.println(getIndent(1) + "@Override");
+        out.println(getIndent(1) + "protected void loadStatement(IRI pred, Value value, LoadContext context) {");
+        out.println(getIndent(2) + "switch (pred.stringValue()) {");
+        for (PropertyDescriptor prop : properties)
+        {
+            out.printf(getIndent(3) + "case \"%s\":\n", StringEscapeUtils.escapeJava(prop.getIRI().stringValue()));
+            generatePropertyLoader(prop, out, 4);
+            out.println(getIndent(4) + "break;");
+        }
+        out.println(getIndent(3) + "default:");
+        out.println(getIndent(4) + "super.loadStatement(pred, value, context);");
+        out.println(getIndent(2) + "}");
+        out.println(getIndent(1) + "}");
+        
+        //the array properties are filled with a spare capacity while loading
+        if (properties.stream().anyMatch(prop -> prop.getClassification().equals("Array")))
+        {
+            out.println();
+            out.println(getIndent(1) + "@Override");
+            out.println(getIndent(1) + "protected void loadFinished(LoadContext context) {");
+            out.println(getIndent(2) + "super.loadFinished(context);");
+            for (PropertyDescriptor prop : properties)
+            {
+                if (prop.getClassification().equals("Array"))
+                    out.printf(getIndent(2) + "%s = trimArray(%s, context.getValueCount(%s.%s));\n",
+                            prop.getName(), prop.getName(), getVocabName(), prop.getName());
+            }
+            out.println(getIndent(1) + "}");
+        }
+        
         if (useFactory)
         {
+            out.println();
+            out.printf(getIndent(1) + "private static %s factory(LoadContext context) {\n", getFactoryName());
+            out.println(getIndent(2) + "final EntityFactory efactory = context.getFactory();");
             out.printf(getIndent(2) + "if (!(efactory instanceof %s))\n", getFactoryName());
             out.printf(getIndent(3) + "throw new IllegalArgumentException(\"factory must be instance of %s\");\n", getFactoryName());
-            out.printf(getIndent(2) + "final %s factory = (%s) efactory;\n\n", getFactoryName(), getFactoryName());
+            out.printf(getIndent(2) + "return (%s) efactory;\n", getFactoryName());
+            out.println(getIndent(1) + "}");
         }
-        
-        out.println(getIndent(2) + "final Model m = model.filter(getIRI(), null, null);");
-        
-        for (IRI piri : properties)
+    }
+    
+    /**
+     * Generates a method that resets all the properties to the values corresponding to no statements
+     * before loading.
+     */
+    protected void generateResetProperties(Collection<PropertyDescriptor> properties, PrintWriter out)
+    {
+        out.println(getIndent(1) + "@Override");
+        out.println(getIndent(1) + "protected void resetProperties() {");
+        out.println(getIndent(2) + "super.resetProperties();");
+        for (PropertyDescriptor prop : properties)
         {
-            String name = getPropertyName(piri);
-            String type = getPropertyClassification(piri);
-            String dtype = getPropertyDataType(piri);
-            if (type.equals("Value") || type.equals("Array")) //values and arrays need type specification in name
+            final String dtype = prop.getDataType();
+            final String init;
+            if (prop.isCollection())
+                init = "new TrackedSet<>(this, " + getVocabName() + "." + prop.getName() + ")";
+            else if (dtype.endsWith("[]"))
+                init = "new " + dtype.substring(0, dtype.length() - 2) + "[0]";
+            else if (dtype.equals("boolean"))
+                init = "false";
+            else if (javaPrimitiveTypes.contains(dtype))
+                init = "0";
+            else
+                init = "null";
+            out.printf(getIndent(2) + "%s = %s;\n", prop.getName(), init);
+            if (isLazy(prop))
+                out.printf(getIndent(2) + "%s = null;\n", getPendingName(prop));
+        }
+        out.println(getIndent(1) + "}");
+    }
+    
+    /**
+     * Generates the code that loads a single property value from the {@code value} variable.
+     */
+    protected void generatePropertyLoader(PropertyDescriptor prop, PrintWriter out, int indent)
+    {
+        final String name = prop.getName();
+        final String type = prop.getClassification();
+        String dtype = prop.getDataType();
+        if (type.equals("Value") || type.equals("Array")) //values and arrays need type specification in name
+        {
+            dtype = dtype.replace("[]", "");
+            if (dtype.contains("."))
+                dtype = dtype.substring(dtype.lastIndexOf('.') + 1);
+            dtype = dtype.substring(0, 1).toUpperCase() + dtype.substring(1);
+            if (type.equals("Value"))
             {
-                dtype = dtype.replace("[]", "");
-                if (dtype.contains("."))
-                    dtype = dtype.substring(dtype.lastIndexOf('.') + 1);
-                dtype = dtype.substring(0, 1).toUpperCase() + dtype.substring(1);
-                out.printf(getIndent(2) + "%s = load%s%s(m, %s.%s);\n", name, dtype, type, getVocabName(), name);
+                //the first value is used for the functional properties
+                out.println(getIndent(indent) + "if (context.nextValueIndex(pred) == 0)");
+                out.printf(getIndent(indent + 1) + "this.%s = as%s(value);\n", name, dtype);
             }
-            else if (type.equals("Object"))
+            else //trimmed by loadFinished()
+                out.printf(getIndent(indent) + "this.%s = appendValue(this.%s, context.nextValueIndex(pred), as%s(value));\n", name, name, dtype);
+        }
+        else if (isLazy(prop))
+        {
+            //only record the IRI, the entity is loaded by the getter
+            final String pending = getPendingName(prop);
+            out.println(getIndent(indent) + "if (value instanceof IRI) {");
+            if (prop.isCollection())
             {
-                out.printf(getIndent(2) + "//load object %s\n", name);
-                out.printf(getIndent(2) + "final Set<IRI> %sIRIs = getObjectIRIs(m, %s.%s);\n", name, getVocabName(), name);
-                out.printf(getIndent(2) + "if (!%sIRIs.isEmpty()) {\n", name);
-                out.printf(getIndent(3) +     "final IRI iri = %sIRIs.iterator().next();\n", name);
-                out.printf(getIndent(3) +     "%s = factory.create%s(iri);\n", name, dtype);
-                out.printf(getIndent(3) +     "%s.loadFromModel(m, factory);\n", name);
-                out.println(getIndent(2) + "} else {");
-                out.printf(getIndent(3) +     "%s = null;\n", name);
-                out.println(getIndent(2) + "}");
+                out.printf(getIndent(indent + 1) + "if (%s == null) %s = new ArrayList<>();\n", pending, pending);
+                out.printf(getIndent(indent + 1) + "%s.add((IRI) value);\n", pending);
             }
-            else if (type.equals("Collection"))
+            else
             {
-                dtype = dtype.replace("Set<", "").replace(">", "");
-                out.printf(getIndent(2) + "//load collection %s\n", name);
-                out.printf(getIndent(2) + "final Set<IRI> %sIRIs = getObjectIRIs(m, %s.%s);\n", name, getVocabName(), name);
-                out.printf(getIndent(2) + "%s = new HashSet<>();\n", name);
-                out.printf(getIndent(2) + "for (IRI iri : %sIRIs) {\n", name);
-                out.printf(getIndent(3) +     "%s item = factory.create%s(iri);\n", dtype, dtype);
-                out.printf(getIndent(3) +     "item.loadFromModel(m, factory);\n");
-                out.printf(getIndent(3) +     "%s.add(item);\n", name);
-                out.println(getIndent(2) + "}");
+                out.println(getIndent(indent + 1) + "if (context.nextValueIndex(pred) == 0)");
+                out.printf(getIndent(indent + 2) + "%s = (IRI) value;\n", pending);
             }
+            out.println(getIndent(indent + 1) + "setLoadContext(context);");
+            out.println(getIndent(indent) + "}");
         }
-
-        out.println(getIndent(1)+ "}");
+        else if (type.equals("Object"))
+        {
+            out.println(getIndent(indent) + "if (value instanceof IRI && context.nextValueIndex(pred) == 0)");
+            out.printf(getIndent(indent + 1) + "this.%s = context.getEntity((IRI) value, %s.class, factory(context)::create%s);\n", name, dtype, dtype);
+        }
+        else if (type.equals("Collection"))
+        {
+            dtype = dtype.replace("Set<", "").replace(">", "");
+            out.println(getIndent(indent) + "if (value instanceof IRI)");
+            out.printf(getIndent(indent + 1) + "this.%s.addLoaded(context.getEntity((IRI) value, %s.class, factory(context)::create%s));\n", name, dtype, dtype);
+        }
+    }
+    
+    /**
+     * Finds the IRIs of all the properties loaded by the generated class including the properties
+     * inherited from its generated superclasses.
+     */
+    protected List<IRI> getLoadedProperties(IRI iri)
+    {
+        final List<IRI> ret = new ArrayList<>();
+        final Set<IRI> visited = new HashSet<>(); //guards against cycles
+        for (IRI cls = iri; cls != null && visited.add(cls); cls = getSuperClass(cls))
+        {
+            for (PropertyDescriptor prop : getPropertyDescriptors(findClassProperties(cls)))
+                ret.add(prop.getIRI());
+        }
+        return ret;
+    }
+    
+    /**
+     * Checks whether the property is loaded lazily in the generated class.
+     */
+    protected boolean isLazy(PropertyDescriptor prop)
+    {
+        return lazyLoading && prop.isObjectOrCollection();
+    }
+    
+    /**
+     * Gets the name of the field that holds the IRIs of a lazy property not loaded yet.
+     */
+    private String getPendingName(PropertyDescriptor prop)
+    {
+        return prop.getName() + (prop.isCollection() ? "IRIs" : "IRI");
+    }
+    
+    /**
+     * Gets the entity type of an object property or the element type of a collection property.
+     */
+    private String getEntityType(PropertyDescriptor prop)
+    {
+        return prop.getDataType().replace("Set<", "").replace(">", "");
     }
     
     protected void generateJavadoc(IRI iri, PrintWriter out, int indent)
@@ -569,7 +1093,7 @@ public class JavaClassBuilder extends ClassBuilder
         //get class properties
         Literal oTitle = getResourceTitle(iri);
         Literal oDescr = getResourceDescription(iri);
-        Set<Value> oSeeAlso = getModel().filter(iri, RDFS.SEEALSO, null).objects();
+        Set<Value> oSeeAlso = getResourceSeeAlso(iri);
         
         //class JavaDoc
         String ii = getIndent(indent);
@@ -0,0 +1,167 @@
+/**
+ * PropertyDescriptor.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * A resolved description of a property used by the generators. The descriptor is computed
+ * once per property by {@link ClassBuilder#getPropertyDescriptor(IRI)} so that the generator
+ * methods do not have to repeat the schema lookups.
+ */
+public class PropertyDescriptor
+{
+    private final IRI iri;
+    private final String name;
+    private final String dataType;
+    private final String classification;
+    private final boolean functional;
+    private final boolean inverseFunctional;
+    private final IRI domain;
+    private final IRI range;
+    private final String sourceType;
+    private final String sourceClass;
+    private final String reverseName;
+
+
+    public PropertyDescriptor(IRI iri, String name, String dataType, String classification,
+            boolean functional, boolean inverseFunctional, IRI domain, IRI range,
+            String sourceType, String sourceClass, String reverseName)
+    {
+        this.iri = iri;
+        this.name = name;
+        this.dataType = dataType;
+        this.classification = classification;
+        this.functional = functional;
+        this.inverseFunctional = inverseFunctional;
+        this.domain = domain;
+        this.range = range;
+        this.sourceType = sourceType;
+        this.sourceClass = sourceClass;
+        this.reverseName = reverseName;
+    }
+
+    /**
+     * Gets the property IRI.
+     * @return the IRI
+     */
+    public IRI getIRI()
+    {
+        return iri;
+    }
+
+    /**
+     * Gets the name of the property in the generated code.
+     * @return the property name
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Gets the target platform name of the property value type.
+     * @return the data type name
+     */
+    public String getDataType()
+    {
+        return dataType;
+    }
+
+    /**
+     * Gets the property classification: {@code Value}, {@code Array}, {@code Object} or {@code Collection}.
+     * @return the classification
+     */
+    public String getClassification()
+    {
+        return classification;
+    }
+
+    public boolean isFunctional()
+    {
+        return functional;
+    }
+
+    public boolean isInverseFunctional()
+    {
+        return inverseFunctional;
+    }
+
+    /**
+     * Gets the property domain.
+     * @return the domain IRI or {@code null} when not specified
+     */
+    public IRI getDomain()
+    {
+        return domain;
+    }
+
+    /**
+     * Gets the property range.
+     * @return the range IRI or {@code null} when not specified
+     */
+    public IRI getRange()
+    {
+        return range;
+    }
+
+    /**
+     * Gets the target platform type of the property domain.
+     * @return the type name or {@code null} when the domain is not specified
+     */
+    public String getSourceType()
+    {
+        return sourceType;
+    }
+
+    /**
+     * Gets the class name of the property domain.
+     * @return the class name or {@code null} when the domain is not specified
+     */
+    public String getSourceClass()
+    {
+        return sourceClass;
+    }
+
+    /**
+     * Gets the name of the inverse collection in the range class.
+     * @return the name or {@code null} when the source class is not known
+     */
+    public String getReverseName()
+    {
+        return reverseName;
+    }
+
+    public boolean isObject()
+    {
+        return "Object".equals(classification);
+    }
+
+    public boolean isCollection()
+    {
+        return "Collection".equals(classification);
+    }
+
+    public boolean isObjectOrCollection()
+    {
+        return isObject() || isCollection();
+    }
+
+    /**
+     * Checks whether an inverse collection should be generated for this property in its range class.
+     * Inverse functional properties are ignored for now, only collections are mapped.
+     * @return {@code true} when the inverse collection should be generated
+     */
+    public boolean hasReverseCollection()
+    {
+        return isObjectOrCollection() && !inverseFunctional;
+    }
+
+    @Override
+    public String toString()
+    {
+        return iri + " (" + classification + " " + dataType + ")";
+    }
+
+}
@@ -0,0 +1,388 @@
+/**
+ * SchemaCache.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Namespace;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An on-disk cache of the parsed input files. The parsed models are stored in a compact binary
+ * form that is read back using a memory-mapped file, which is much faster than parsing the source
+ * RDF files.
+ * <p>
+ * The cache entries are identified by the content hash of the source file so that a cache directory
+ * may be shared by multiple projects that use the same (e.g. imported) ontologies. For every source
+ * file path, a small reference file records the file size, modification time and content hash so that
+ * the content hash does not have to be recomputed when the file has not been touched. When the size
+ * or modification time changes, the content hash is recomputed and a different entry is used
+ * when the content has changed.
+ */
+public class SchemaCache
+{
+    private static final Logger log = LoggerFactory.getLogger(SchemaCache.class);
+
+    private static final int ENTRY_MAGIC = 0x43425343; //CBSC
+    private static final int REF_MAGIC = 0x43425352; //CBSR
+    private static final int VERSION = 1;
+
+    private static final byte KIND_IRI = 1;
+    private static final byte KIND_BNODE = 2;
+    private static final byte KIND_LITERAL = 3;
+    private static final byte KIND_LANG_LITERAL = 4;
+    private static final byte KIND_TYPED_LITERAL = 5;
+
+    private final Path cacheDir;
+
+
+    /**
+     * Creates a cache that uses the given directory. The directory is created when it does not exist.
+     * @param cacheDir the cache directory
+     * @throws IOException when the directory cannot be created
+     */
+    public SchemaCache(Path cacheDir) throws IOException
+    {
+        this.cacheDir = cacheDir;
+        Files.createDirectories(cacheDir);
+    }
+
+    /**
+     * Gets the cache directory.
+     * @return the cache directory path
+     */
+    public Path getCacheDir()
+    {
+        return cacheDir;
+    }
+
+    /**
+     * Gets a cached model for the given source file.
+     * @param file the source file
+     * @param format the source file format
+     * @param schemaOnly {@code true} when the model contains the schema statements only
+     * @return the cached model or {@code null} when the file is not cached or it has changed
+     * @throws IOException when the source file cannot be read
+     */
+    public Model get(Path file, RDFFormat format, boolean schemaOnly) throws IOException
+    {
+        final String variant = getVariant(format, schemaOnly);
+        final String contentHash = getContentHash(file, variant);
+        final Path entry = getEntryPath(contentHash, variant);
+        if (Files.isRegularFile(entry))
+        {
+            try {
+                final Model ret = readEntry(entry);
+                log.debug("Loaded {} from cache entry {}", file, entry.getFileName());
+                return ret;
+            } catch (IOException | RuntimeException e) {
+                //a damaged or incompatible entry; will be replaced by put()
+                log.warn("Ignoring cache entry {}: {}", entry, e.toString());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores a parsed model of a source file in the cache.
+     * @param file the source file
+     * @param format the source file format
+     * @param schemaOnly {@code true} when the model contains the schema statements only
+     * @param model the parsed model
+     * @throws IOException
+     */
+    public void put(Path file, RDFFormat format, boolean schemaOnly, Model model) throws IOException
+    {
+        final String variant = getVariant(format, schemaOnly);
+        final String contentHash = getContentHash(file, variant);
+        final Path entry = getEntryPath(contentHash, variant);
+        final Path tmp = Files.createTempFile(cacheDir, "entry", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp))))
+            {
+                writeEntry(model, out);
+            }
+            moveAtomically(tmp, entry);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        log.debug("Stored {} to cache entry {}", file, entry.getFileName());
+    }
+
+    //=======================================================================================================
+
+    private String getVariant(RDFFormat format, boolean schemaOnly)
+    {
+        //the filtered models depend on the filtering rules
+        return format.getName() + (schemaOnly ? "|schema" + SchemaFilterHandler.RULES_VERSION : "|full");
+    }
+
+    private Path getEntryPath(String contentHash, String variant)
+    {
+        return cacheDir.resolve(GenerationManifest.hash(contentHash + "|" + variant) + ".entry");
+    }
+
+    /**
+     * Obtains the content hash of a file. The hash recorded in the path reference is used when
+     * the file size and modification time have not changed; otherwise the hash is computed
+     * and the reference is updated.
+     */
+    private String getContentHash(Path file, String variant) throws IOException
+    {
+        final Path absFile = file.toAbsolutePath().normalize();
+        final long size = Files.size(absFile);
+        final long mtime = Files.getLastModifiedTime(absFile).toMillis();
+        final Path ref = cacheDir.resolve(GenerationManifest.hash(absFile.toString() + "|" + variant) + ".ref");
+
+        if (Files.isRegularFile(ref))
+        {
+            final ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(ref));
+            try {
+                if (buf.getInt() == REF_MAGIC && buf.getInt() == VERSION
+                        && buf.getLong() == size && buf.getLong() == mtime)
+                {
+                    return readString(buf, new byte[64]);
+                }
+            } catch (BufferUnderflowException e) {
+                log.warn("Ignoring damaged cache reference {}", ref);
+            }
+        }
+
+        final String hash = computeContentHash(absFile);
+        final Path tmp = Files.createTempFile(cacheDir, "ref", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp)))
+            {
+                out.writeInt(REF_MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(size);
+                out.writeLong(mtime);
+                writeString(out, hash);
+            }
+            moveAtomically(tmp, ref);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return hash;
+    }
+
+    private static String computeContentHash(Path file) throws IOException
+    {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), md))
+            {
+                final byte[] buf = new byte[65536];
+                while (in.read(buf) != -1)
+                    ; //just digest the content
+            }
+            final StringBuilder sb = new StringBuilder();
+            for (byte b : md.digest())
+                sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); //SHA-256 is always available
+        }
+    }
+
+    private static void moveAtomically(Path src, Path dest) throws IOException
+    {
+        try {
+            Files.move(src, dest, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(src, dest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    //=======================================================================================================
+
+    /*
+     * Entry format: header, namespaces, a table of distinct values and the statements
+     * referencing the values by their indices in the table. Strings are stored as
+     * length-prefixed UTF-8.
+     */
+
+    private static void writeEntry(Model model, DataOutputStream out) throws IOException
+    {
+        out.writeInt(ENTRY_MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeInt(model.getNamespaces().size());
+        for (Namespace ns : model.getNamespaces())
+        {
+            writeString(out, ns.getPrefix());
+            writeString(out, ns.getName());
+        }
+
+        //value table
+        final Map<Value, Integer> ids = new HashMap<>();
+        final int[] stmts = new int[model.size() * 4];
+        final ByteArrayOutputStream valueData = new ByteArrayOutputStream();
+        final DataOutputStream values = new DataOutputStream(valueData);
+        int i = 0;
+        for (Statement st : model)
+        {
+            stmts[i++] = getValueId(st.getSubject(), ids, values);
+            stmts[i++] = getValueId(st.getPredicate(), ids, values);
+            stmts[i++] = getValueId(st.getObject(), ids, values);
+            stmts[i++] = (st.getContext() == null) ? -1 : getValueId(st.getContext(), ids, values);
+        }
+        out.writeInt(ids.size());
+        valueData.writeTo(out);
+
+        out.writeInt(model.size());
+        for (int v : stmts)
+            out.writeInt(v);
+    }
+
+    private static int getValueId(Value value, Map<Value, Integer> ids, DataOutputStream out) throws IOException
+    {
+        Integer id = ids.get(value);
+        if (id == null)
+        {
+            id = ids.size();
+            ids.put(value, id);
+            if (value instanceof IRI)
+            {
+                out.writeByte(KIND_IRI);
+                writeString(out, value.stringValue());
+            }
+            else if (value instanceof BNode)
+            {
+                out.writeByte(KIND_BNODE);
+                writeString(out, ((BNode) value).getID());
+            }
+            else
+            {
+                final Literal lit = (Literal) value;
+                if (lit.getLanguage().isPresent())
+                {
+                    out.writeByte(KIND_LANG_LITERAL);
+                    writeString(out, lit.getLabel());
+                    writeString(out, lit.getLanguage().get());
+                }
+                else if (lit.getDatatype() != null)
+                {
+                    out.writeByte(KIND_TYPED_LITERAL);
+                    writeString(out, lit.getLabel());
+                    writeString(out, lit.getDatatype().stringValue());
+                }
+                else
+                {
+                    out.writeByte(KIND_LITERAL);
+                    writeString(out, lit.getLabel());
+                }
+            }
+        }
+        return id;
+    }
+
+    private static Model readEntry(Path entry) throws IOException
+    {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        try (FileChannel ch = FileChannel.open(entry, StandardOpenOption.READ))
+        {
+            final MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (buf.getInt() != ENTRY_MAGIC || buf.getInt() != VERSION)
+                throw new IOException("Unsupported cache entry format");
+            final byte[] sbuf = new byte[256];
+
+            final Model model = new LinkedHashModel();
+            final int nscnt = buf.getInt();
+            for (int i = 0; i < nscnt; i++)
+            {
+                final String prefix = readString(buf, sbuf);
+                model.setNamespace(prefix, readString(buf, sbuf));
+            }
+
+            final Value[] values = new Value[buf.getInt()];
+            for (int i = 0; i < values.length; i++)
+            {
+                final byte kind = buf.get();
+                final String str = readString(buf, sbuf);
+                switch (kind)
+                {
+                    case KIND_IRI:
+                        values[i] = vf.createIRI(str);
+                        break;
+                    case KIND_BNODE:
+                        values[i] = vf.createBNode(str);
+                        break;
+                    case KIND_LITERAL:
+                        values[i] = vf.createLiteral(str);
+                        break;
+                    case KIND_LANG_LITERAL:
+                        values[i] = vf.createLiteral(str, readString(buf, sbuf));
+                        break;
+                    case KIND_TYPED_LITERAL:
+                        values[i] = vf.createLiteral(str, vf.createIRI(readString(buf, sbuf)));
+                        break;
+                    default:
+                        throw new IOException("Unknown value kind " + kind);
+                }
+            }
+
+            final int stcnt = buf.getInt();
+            for (int i = 0; i < stcnt; i++)
+            {
+                final Resource subj = (Resource) values[buf.getInt()];
+                final IRI pred = (IRI) values[buf.getInt()];
+                final Value obj = values[buf.getInt()];
+                final int ctx = buf.getInt();
+                if (ctx == -1)
+                    model.add(subj, pred, obj);
+                else
+                    model.add(subj, pred, obj, (Resource) values[ctx]);
+            }
+            return model;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException
+    {
+        final byte[] data = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(ByteBuffer buf, byte[] sbuf)
+    {
+        final int len = buf.getInt();
+        final byte[] data = (len <= sbuf.length) ? sbuf : new byte[len];
+        buf.get(data, 0, len);
+        return new String(data, 0, len, StandardCharsets.UTF_8);
+    }
+
+}
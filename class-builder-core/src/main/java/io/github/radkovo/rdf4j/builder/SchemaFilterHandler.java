@@ -0,0 +1,136 @@
+/**
+ * SchemaFilterHandler.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+/**
+ * A RDF handler that stores only the statements used by the class builders to a target model
+ * and discards all the other statements (instance data, unused annotations) while parsing.
+ * The kept statements are the class and property type declarations, domains, ranges, superclasses,
+ * union lists, functional property markers, labels, comments and {@code rdfs:seeAlso} references.
+ */
+public class SchemaFilterHandler extends AbstractRDFHandler
+{
+    /**
+     * The version of the filtering rules. It must be increased whenever the set of the kept statements
+     * changes so that the filtered models cached by a {@link SchemaCache} are not reused.
+     */
+    public static final int RULES_VERSION = 1;
+    
+    private static final Set<Value> schemaTypes;
+    private static final Set<IRI> schemaPredicates;
+    private static final Set<IRI> literalPredicates;
+    static {
+        schemaTypes = new HashSet<>();
+        schemaTypes.add(RDFS.CLASS);
+        schemaTypes.add(OWL.CLASS);
+        for (IRI type : ClassBuilder.PROPERTY_PROPERTIES)
+            schemaTypes.add(type);
+        schemaTypes.add(OWL.FUNCTIONALPROPERTY);
+        schemaTypes.add(OWL.INVERSEFUNCTIONALPROPERTY);
+
+        schemaPredicates = new HashSet<>();
+        schemaPredicates.add(RDFS.DOMAIN);
+        schemaPredicates.add(RDFS.RANGE);
+        schemaPredicates.add(RDFS.SUBCLASSOF);
+        schemaPredicates.add(RDFS.SEEALSO);
+        schemaPredicates.add(OWL.UNIONOF);
+        schemaPredicates.add(RDF.FIRST);
+        schemaPredicates.add(RDF.REST);
+
+        literalPredicates = new HashSet<>();
+        for (IRI pred : ClassBuilder.LABEL_PROPERTIES)
+            literalPredicates.add(pred);
+        for (IRI pred : ClassBuilder.COMMENT_PROPERTIES)
+            literalPredicates.add(pred);
+    }
+
+    private final Model target;
+    private long total;
+    private long kept;
+
+
+    /**
+     * Creates a new handler.
+     * @param target the model to store the schema statements to
+     */
+    public SchemaFilterHandler(Model target)
+    {
+        this.target = target;
+    }
+
+    /**
+     * Gets the target model.
+     * @return the target model
+     */
+    public Model getTarget()
+    {
+        return target;
+    }
+
+    /**
+     * Gets the number of statements processed.
+     * @return the number of statements
+     */
+    public long getTotalCount()
+    {
+        return total;
+    }
+
+    /**
+     * Gets the number of statements stored to the target model.
+     * @return the number of statements
+     */
+    public long getKeptCount()
+    {
+        return kept;
+    }
+
+    @Override
+    public void handleNamespace(String prefix, String uri) throws RDFHandlerException
+    {
+        target.setNamespace(prefix, uri);
+    }
+
+    @Override
+    public void handleStatement(Statement st) throws RDFHandlerException
+    {
+        total++;
+        if (isSchemaStatement(st))
+        {
+            target.add(st);
+            kept++;
+        }
+    }
+
+    /**
+     * Checks whether the statement is used by the class builders.
+     * @param st the statement to check
+     * @return {@code true} when the statement should be kept
+     */
+    protected boolean isSchemaStatement(Statement st)
+    {
+        final IRI pred = st.getPredicate();
+        if (RDF.TYPE.equals(pred))
+            return schemaTypes.contains(st.getObject());
+        else if (schemaPredicates.contains(pred))
+            return true;
+        else
+            return (st.getObject() instanceof Literal) && literalPredicates.contains(pred);
+    }
+
+}
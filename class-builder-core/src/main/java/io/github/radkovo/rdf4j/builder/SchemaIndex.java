@@ -0,0 +1,437 @@
+/**
+ * SchemaIndex.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.rdf4j.model.BNode;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.OWL;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.model.vocabulary.RDFS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A precomputed index of the ontology schema (a compiled schema). It is built in a single pass over
+ * the source model and it provides constant-time access to the class and property details needed
+ * by the generators. The index is not updated automatically when the source model changes.
+ * <p>
+ * The index is immutable and thread-safe. A single index may be shared by multiple generators
+ * (see {@link ClassBuilder#setSchemaIndex(SchemaIndex)}) that run concurrently. The source model
+ * must not be modified while the index is in use.
+ */
+public class SchemaIndex
+{
+    private static final Logger log = LoggerFactory.getLogger(SchemaIndex.class);
+
+    /** A stable ordering of values based on their string representation. */
+    public static final Comparator<Value> VALUE_ORDER = Comparator.comparing(Value::stringValue);
+
+    private static final Set<IRI> classTypes;
+    private static final Set<IRI> propertyTypes;
+    private static final Set<IRI> annotationPredicates;
+    static {
+        classTypes = new HashSet<>();
+        classTypes.add(RDFS.CLASS);
+        classTypes.add(OWL.CLASS);
+        propertyTypes = new HashSet<>();
+        for (IRI type : ClassBuilder.PROPERTY_PROPERTIES)
+            propertyTypes.add(type);
+        annotationPredicates = new HashSet<>();
+        for (IRI pred : ClassBuilder.LABEL_PROPERTIES)
+            annotationPredicates.add(pred);
+        for (IRI pred : ClassBuilder.COMMENT_PROPERTIES)
+            annotationPredicates.add(pred);
+    }
+
+    /** The source model (read-only view) */
+    private final Model model;
+    /** All the resources declared as classes */
+    private final Set<Resource> classes;
+    /** All the IRIs declared as properties */
+    private final Set<IRI> properties;
+    private final Set<IRI> functionalProperties;
+    private final Set<IRI> inverseFunctionalProperties;
+    /** Property domains and ranges with the unions resolved */
+    private final Map<IRI, Set<Value>> domains;
+    private final Map<IRI, Set<Value>> ranges;
+    /** The first IRI specified as a property domain or range */
+    private final Map<IRI, IRI> domainIRIs;
+    private final Map<IRI, IRI> rangeIRIs;
+    /** Domain or range type -> declared properties */
+    private final Map<Value, Set<IRI>> domainProperties;
+    private final Map<Value, Set<IRI>> rangeProperties;
+    /** The first IRI specified as a superclass */
+    private final Map<Resource, IRI> superClasses;
+    /** All the IRIs specified as superclasses */
+    private final Map<Resource, Set<IRI>> allSuperClasses;
+    /** Label and comment literals: subject -> predicate -> literals */
+    private final Map<Resource, Map<IRI, List<Literal>>> annotations;
+    private final Map<Resource, Set<Value>> seeAlso;
+    /** The class hierarchy built on first use */
+    private volatile ClassHierarchy hierarchy;
+    /** Namespaces of the declared classes */
+    private final Set<String> localNamespaces;
+
+
+    /**
+     * Builds the index from the given model.
+     * @param model the source model
+     */
+    public SchemaIndex(Model model)
+    {
+        this.model = model.unmodifiable();
+        classes = new HashSet<>();
+        properties = new HashSet<>();
+        functionalProperties = new HashSet<>();
+        inverseFunctionalProperties = new HashSet<>();
+        domainIRIs = new HashMap<>();
+        rangeIRIs = new HashMap<>();
+        superClasses = new HashMap<>();
+        allSuperClasses = new HashMap<>();
+        annotations = new HashMap<>();
+        seeAlso = new HashMap<>();
+
+        //raw data needed for resolving the domains, ranges and unions after the pass
+        final Map<IRI, List<Value>> domainSpecs = new HashMap<>();
+        final Map<IRI, List<Value>> rangeSpecs = new HashMap<>();
+        final Map<Resource, List<Value>> unions = new HashMap<>();
+        final Map<Resource, Value> listFirst = new HashMap<>();
+        final Map<Resource, Value> listRest = new HashMap<>();
+
+        for (Statement st : model)
+        {
+            final Resource subj = st.getSubject();
+            final IRI pred = st.getPredicate();
+            final Value obj = st.getObject();
+
+            if (RDF.TYPE.equals(pred))
+            {
+                if (classTypes.contains(obj))
+                    classes.add(subj);
+                else if (subj instanceof IRI)
+                {
+                    if (propertyTypes.contains(obj))
+                        properties.add((IRI) subj);
+                    else if (OWL.FUNCTIONALPROPERTY.equals(obj))
+                        functionalProperties.add((IRI) subj);
+                    else if (OWL.INVERSEFUNCTIONALPROPERTY.equals(obj))
+                        inverseFunctionalProperties.add((IRI) subj);
+                }
+            }
+            else if (RDFS.DOMAIN.equals(pred))
+            {
+                if (subj instanceof IRI)
+                    addSpec(domainSpecs, domainIRIs, (IRI) subj, obj);
+            }
+            else if (RDFS.RANGE.equals(pred))
+            {
+                if (subj instanceof IRI)
+                    addSpec(rangeSpecs, rangeIRIs, (IRI) subj, obj);
+            }
+            else if (RDFS.SUBCLASSOF.equals(pred))
+            {
+                if (obj instanceof IRI)
+                {
+                    if (!superClasses.containsKey(subj))
+                        superClasses.put(subj, (IRI) obj);
+                    allSuperClasses.computeIfAbsent(subj, k -> new LinkedHashSet<>()).add((IRI) obj);
+                }
+            }
+            else if (OWL.UNIONOF.equals(pred))
+            {
+                unions.computeIfAbsent(subj, k -> new ArrayList<>(1)).add(obj);
+            }
+            else if (RDF.FIRST.equals(pred))
+            {
+                listFirst.put(subj, obj);
+            }
+            else if (RDF.REST.equals(pred))
+            {
+                listRest.put(subj, obj);
+            }
+            else if (RDFS.SEEALSO.equals(pred))
+            {
+                seeAlso.computeIfAbsent(subj, k -> new LinkedHashSet<>()).add(obj);
+            }
+            else if (obj instanceof Literal && annotationPredicates.contains(pred))
+            {
+                annotations.computeIfAbsent(subj, k -> new HashMap<>())
+                    .computeIfAbsent(pred, k -> new ArrayList<>(1)).add((Literal) obj);
+            }
+        }
+
+        //resolve the referenced types
+        domains = resolveSpecs(domainSpecs, RDFS.DOMAIN, unions, listFirst, listRest);
+        ranges = resolveSpecs(rangeSpecs, RDFS.RANGE, unions, listFirst, listRest);
+        domainProperties = invert(domains, properties);
+        rangeProperties = invert(ranges, properties);
+        
+        //find local namespaces
+        localNamespaces = new HashSet<>();
+        for (Resource cls : classes)
+        {
+            if (cls instanceof IRI)
+                localNamespaces.add(((IRI) cls).getNamespace());
+        }
+        log.debug("Local namespaces: {}", localNamespaces);
+        log.debug("Schema index: {} classes, {} properties", classes.size(), properties.size());
+    }
+
+    //=======================================================================================================
+
+    /**
+     * Gets the source model the index has been built from.
+     * @return a read-only view of the source model
+     */
+    public Model getModel()
+    {
+        return model;
+    }
+
+    /**
+     * Gets the namespaces of all the declared classes.
+     * @return the set of namespace IRIs
+     */
+    public Set<String> getLocalNamespaces()
+    {
+        return Collections.unmodifiableSet(localNamespaces);
+    }
+
+    /**
+     * Gets all the resources declared as {@code rdfs:Class} or {@code owl:Class}.
+     * @return the set of classes
+     */
+    public Set<Resource> getClasses()
+    {
+        return Collections.unmodifiableSet(classes);
+    }
+
+    /**
+     * Gets all the IRIs declared as properties.
+     * @return the set of properties
+     */
+    public Set<IRI> getProperties()
+    {
+        return Collections.unmodifiableSet(properties);
+    }
+
+    /**
+     * Finds the declared properties that reference the given type in their domain or range.
+     * @param type the referenced type
+     * @param predicate {@code rdfs:domain} or {@code rdfs:range}
+     * @return the set of properties
+     */
+    public Set<IRI> getPropertiesReferencing(Value type, IRI predicate)
+    {
+        final Map<Value, Set<IRI>> index = RDFS.RANGE.equals(predicate) ? rangeProperties : domainProperties;
+        final Set<IRI> ret = index.get(type);
+        return (ret == null) ? Collections.emptySet() : Collections.unmodifiableSet(ret);
+    }
+
+    /**
+     * Gets all the domain or range types referenced by a property with the unions resolved.
+     * @param property the property IRI
+     * @param predicate {@code rdfs:domain} or {@code rdfs:range}
+     * @return a set of referenced types
+     */
+    public Set<Value> getReferencedTypes(IRI property, IRI predicate)
+    {
+        final Map<IRI, Set<Value>> index = RDFS.RANGE.equals(predicate) ? ranges : domains;
+        final Set<Value> ret = index.get(property);
+        return (ret == null) ? Collections.emptySet() : Collections.unmodifiableSet(ret);
+    }
+
+    /**
+     * Gets the first IRI specified as the property domain.
+     * @param property the property IRI
+     * @return the domain IRI or {@code null} when not specified by an IRI
+     */
+    public IRI getDomain(IRI property)
+    {
+        return domainIRIs.get(property);
+    }
+
+    /**
+     * Gets the first IRI specified as the property range.
+     * @param property the property IRI
+     * @return the range IRI or {@code null} when not specified by an IRI
+     */
+    public IRI getRange(IRI property)
+    {
+        return rangeIRIs.get(property);
+    }
+
+    public boolean isFunctionalProperty(IRI property)
+    {
+        return functionalProperties.contains(property);
+    }
+
+    public boolean isInverseFunctionalProperty(IRI property)
+    {
+        return inverseFunctionalProperties.contains(property);
+    }
+
+    /**
+     * Gets the first IRI specified as a superclass of the given class.
+     * @param cls the class
+     * @return the superclass IRI or {@code null} when there is no superclass
+     */
+    public IRI getSuperClass(Resource cls)
+    {
+        return superClasses.get(cls);
+    }
+
+    /**
+     * Gets all the IRIs specified as direct superclasses of the given class.
+     * @param cls the class
+     * @return the set of superclasses (possibly empty)
+     */
+    public Set<IRI> getSuperClasses(Resource cls)
+    {
+        final Set<IRI> ret = allSuperClasses.get(cls);
+        return (ret == null) ? Collections.emptySet() : Collections.unmodifiableSet(ret);
+    }
+
+    /**
+     * Gets the hierarchy of all the declared classes. The hierarchy is built on the first call.
+     * @return the class hierarchy
+     */
+    public ClassHierarchy getClassHierarchy()
+    {
+        ClassHierarchy ret = hierarchy;
+        if (ret == null)
+        {
+            synchronized (this)
+            {
+                ret = hierarchy;
+                if (ret == null)
+                {
+                    ret = new ClassHierarchy(this);
+                    hierarchy = ret;
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Gets the literals assigned to a resource using the given label or comment predicate.
+     * @param subject the resource
+     * @param predicate one of the label or comment predicates
+     * @return the list of literals (possibly empty)
+     */
+    public List<Literal> getLiterals(Resource subject, IRI predicate)
+    {
+        final Map<IRI, List<Literal>> preds = annotations.get(subject);
+        if (preds != null)
+        {
+            final List<Literal> ret = preds.get(predicate);
+            if (ret != null)
+                return Collections.unmodifiableList(ret);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the {@code rdfs:seeAlso} values of a resource.
+     * @param subject the resource
+     * @return the set of values (possibly empty)
+     */
+    public Set<Value> getSeeAlso(Resource subject)
+    {
+        final Set<Value> ret = seeAlso.get(subject);
+        return (ret == null) ? Collections.emptySet() : Collections.unmodifiableSet(ret);
+    }
+
+    //=======================================================================================================
+
+    private static void addSpec(Map<IRI, List<Value>> specs, Map<IRI, IRI> firstIRIs, IRI property, Value obj)
+    {
+        specs.computeIfAbsent(property, k -> new ArrayList<>(1)).add(obj);
+        if (obj instanceof IRI && !firstIRIs.containsKey(property))
+            firstIRIs.put(property, (IRI) obj);
+    }
+
+    private static Map<IRI, Set<Value>> resolveSpecs(Map<IRI, List<Value>> specs, IRI predicate,
+            Map<Resource, List<Value>> unions, Map<Resource, Value> listFirst, Map<Resource, Value> listRest)
+    {
+        final Map<IRI, Set<Value>> ret = new HashMap<>(specs.size());
+        for (Map.Entry<IRI, List<Value>> entry : specs.entrySet())
+        {
+            final Set<Value> types = new HashSet<>();
+            for (Value obj : entry.getValue())
+            {
+                if (obj instanceof IRI) //IRIs of objects referenced directly
+                    types.add(obj);
+                else if (obj instanceof BNode) //a blank node - check for a referenced union
+                    types.addAll(resolveUnion((BNode) obj, unions, listFirst, listRest));
+            }
+            if (entry.getValue().size() > 1)
+            {
+                log.warn("Multiple specifications of {} for property {}. This may not work as expected since we can't"
+                        + " handle intersections properly in the class builder.", predicate, entry.getKey());
+            }
+            ret.put(entry.getKey(), types);
+        }
+        return ret;
+    }
+
+    private static Set<IRI> resolveUnion(Resource subj, Map<Resource, List<Value>> unions,
+            Map<Resource, Value> listFirst, Map<Resource, Value> listRest)
+    {
+        //TODO many more other cases may occur here probably. We just assume an anonymous class defined by union of normal classes.
+        final Set<IRI> ret = new HashSet<>();
+        final List<Value> heads = unions.get(subj);
+        if (heads != null)
+        {
+            for (Value head : heads)
+            {
+                //treat the union as a RDF collection
+                final Set<Value> visited = new HashSet<>();
+                Value node = head;
+                while (node instanceof Resource && !RDF.NIL.equals(node) && visited.add(node))
+                {
+                    final Value val = listFirst.get(node);
+                    if (val instanceof IRI)
+                        ret.add((IRI) val);
+                    node = listRest.get(node);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static Map<Value, Set<IRI>> invert(Map<IRI, Set<Value>> src, Set<IRI> declared)
+    {
+        final Map<Value, Set<IRI>> ret = new HashMap<>();
+        for (Map.Entry<IRI, Set<Value>> entry : src.entrySet())
+        {
+            if (!declared.contains(entry.getKey()))
+                continue; //only the declared properties are considered
+            for (Value type : entry.getValue())
+                ret.computeIfAbsent(type, k -> new TreeSet<>(VALUE_ORDER)).add(entry.getKey());
+        }
+        //use a stable order that does not depend on the input
+        for (Map.Entry<Value, Set<IRI>> entry : ret.entrySet())
+            entry.setValue(new LinkedHashSet<>(entry.getValue()));
+        return ret;
+    }
+
+}
@@ -5,22 +5,17 @@
  */
 package io.github.radkovo.rdf4j.builder.js;
 
-import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.eclipse.rdf4j.model.IRI;
-import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
 import org.eclipse.rdf4j.rio.RDFFormat;
@@ -29,6 +24,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.radkovo.rdf4j.builder.ClassBuilder;
+import io.github.radkovo.rdf4j.builder.GenerationManifest;
+import io.github.radkovo.rdf4j.builder.PropertyDescriptor;
+import io.github.radkovo.rdf4j.builder.SchemaIndex;
 
 /**
  * 
@@ -76,6 +74,11 @@ public class JSMappingBuilder extends ClassBuilder
         super(filename, format);
     }
 
+    public JSMappingBuilder(SchemaIndex schema)
+    {
+        super(schema);
+    }
+
     @Override
     protected Map<IRI, String> getDataTypes()
     {
@@ -116,13 +119,38 @@ public class JSMappingBuilder extends ClassBuilder
         List<IRI> classes = sortClasses(findClasses());
         log.info("Found clases: {}", classes);
         
-        generateMappers(classes, outputDir);
+        final GenerationManifest oldManifest = loadManifest(outputDir);
+        final GenerationManifest newManifest = new GenerationManifest();
+        final String fileName = getVocabName() + "Mappers.js";
+        if (isIncremental())
+        {
+            //the mappers file depends on all the classes
+            final StringBuilder sb = new StringBuilder();
+            describeSettings(sb);
+            for (IRI cres : classes)
+                sb.append(getClassInputHash(cres)).append('\n');
+            final String hash = GenerationManifest.hash(sb.toString());
+            newManifest.setHash(fileName, hash);
+            if (isUpToDate(outputDir, fileName, hash, oldManifest))
+                log.debug("{} is up to date", fileName);
+            else
+            {
+                final StringWriter sw = new StringWriter();
+                final PrintWriter out = new PrintWriter(sw);
+                generateMappers(classes, out);
+                out.close();
+                GenerationManifest.writeIfChanged(outputDir.resolve(fileName), sw.toString());
+            }
+        }
+        else
+        {
+            writeFile(outputDir.resolve(fileName), out -> generateMappers(classes, out));
+        }
+        updateManifest(outputDir, oldManifest, newManifest);
     }
     
-    private void generateMappers(List<IRI> classes, Path outputDir) throws IOException
+    private void generateMappers(List<IRI> classes, PrintWriter out)
     {
-        File outfile = new File(outputDir.toFile(), getVocabName() + "Mappers.js");
-        PrintWriter out = new PrintWriter(outfile);
         
         //imports
         out.println();
@@ -139,8 +167,6 @@ public class JSMappingBuilder extends ClassBuilder
         //creator registry
         generateRegistry(classes, out);
         generateModel(out);
-        
-        out.close();
     }
 
     private void generateModel(PrintWriter out)
@@ -170,12 +196,12 @@ public class JSMappingBuilder extends ClassBuilder
     private void generateMapper(IRI iri, PrintWriter out)
     {
         final String className = getClassName(iri);
-        Set<IRI> properties = findClassProperties(iri);
-        Set<IRI> revProperties = findClassProperties(iri, RDFS.RANGE); //reverse properties
+        List<PropertyDescriptor> properties = getPropertyDescriptors(findClassProperties(iri));
+        List<PropertyDescriptor> revProperties = getPropertyDescriptors(findClassProperties(iri, RDFS.RANGE)); //reverse properties
         
         //super class
         String superClass = DEFAULT_SUPERCLASS;
-        final IRI superClassIRI = getOptionalObjectIRI(getModel(), iri, RDFS.SUBCLASSOF);
+        final IRI superClassIRI = getSuperClass(iri);
         if (superClassIRI != null)
         {
             superClass = getClassName(superClassIRI);
@@ -189,22 +215,22 @@ public class JSMappingBuilder extends ClassBuilder
         
         //own mappings
         out.printf(getIndent(2) + "this.addMapping({\n");
-        for (IRI piri : properties)
+        for (PropertyDescriptor prop : properties)
         {
-            /*if (!isObjectOrCollectionProperty(piri))
+            /*if (!prop.isObjectOrCollection())
             {
-                generatePropertyMapping(piri, getPropertyName(piri), out);
+                generatePropertyMapping(prop, out);
             }*/
-            generatePropertyMapping(piri, getPropertyName(piri), out);
+            generatePropertyMapping(prop, out);
         }
         //reverse properties
-        for (IRI piri : revProperties)
+        for (PropertyDescriptor prop : revProperties)
         {
-            //log.debug("CLASS {} : {}", piri, getPropertyClassification(piri));
+            //log.debug("CLASS {} : {}", prop.getIRI(), prop.getClassification());
             //inverse functional properties are ignored for now, we map collections only
-            if (isObjectOrCollectionProperty(piri) && !isInverseFunctionalProperty(piri))
+            if (prop.hasReverseCollection())
             {
-                generateReverseCollectionMapping(piri, getPropertyName(piri), out);
+                generateReverseCollectionMapping(prop, out);
             }
         }
         out.printf(getIndent(2) + "});\n");
@@ -215,72 +241,23 @@ public class JSMappingBuilder extends ClassBuilder
         out.println("}\n");
     }
     
-    private void generatePropertyMapping(IRI iri, String propertyName, PrintWriter out)
+    private void generatePropertyMapping(PropertyDescriptor prop, PrintWriter out)
     {
-        String type = getPropertyDataType(iri);
-        out.printf(getIndent(3) + "%s: { name: '%s', type: '%s' },\n", propertyName, iri.toString(), type);
+        out.printf(getIndent(3) + "%s: { name: '%s', type: '%s' },\n", prop.getName(), prop.getIRI().toString(), prop.getDataType());
     }
     
-    protected void generateReverseCollectionMapping(IRI iri, String propertyName, PrintWriter out)
+    protected void generateReverseCollectionMapping(PropertyDescriptor prop, PrintWriter out)
     {
-        final String propertyType = getCollectionType(getPropertySourceType(iri));
-        final String varName = getReversePropertyName(iri);
+        final String varName = prop.getReverseName();
         if (varName != null)
         {
-            out.printf(getIndent(3) + "// Inverse collection for %s.%s.\n", getPropertySourceClass(iri), propertyName);
-            out.printf(getIndent(3) + "%s: { name: '%s', type: '%s', inverse: true },\n", varName, iri.toString(), propertyType);
+            final String propertyType = getCollectionType(prop.getSourceType());
+            out.printf(getIndent(3) + "// Inverse collection for %s.%s.\n", prop.getSourceClass(), prop.getName());
+            out.printf(getIndent(3) + "%s: { name: '%s', type: '%s', inverse: true },\n", varName, prop.getIRI().toString(), propertyType);
         }
         else
         {
-            log.warn("Skipped inverse collection for {} -- couldn't determine its source class", iri);
-        }
-    }
-
-    private List<IRI> sortClasses(Set<Resource> classes)
-    {
-        List<IRI> ret = new ArrayList<>();
-        for (Resource cres : classes)
-        {
-            if (cres instanceof IRI)
-            {
-                ret.add((IRI) cres);
-            }
-            else
-            {
-                log.warn("Skipping resource {} -- not an IRI", cres);
-            }
-        }
-        Collections.sort(ret, new SuperclassComparator()); //move superclasses first
-        return ret;
-    }
-
-    class SuperclassComparator implements Comparator<IRI>
-    {
-        @Override
-        public int compare(IRI c1, IRI c2)
-        {
-            final IRI superC1 = getOptionalObjectIRI(getModel(), c1, RDFS.SUBCLASSOF);
-            final IRI superC2 = getOptionalObjectIRI(getModel(), c2, RDFS.SUBCLASSOF);
-            if (superC1 == null && superC2 != null) 
-            {
-                return -1; //c1 has no superclass, c2 has one
-            }
-            else if (superC1 != null && superC2 == null) 
-            {
-                return 1; //c2 has no superclass, c1 has one
-            }
-            else if (c2.equals(superC1)) 
-            { 
-                return 1; //c2 is superclass of c1
-            } 
-            else if (c1.equals(superC2))
-            { 
-                return -1; //c1 is superclass of c2
-            } 
-            else 
-            {
-                return c1.getLocalName().compareTo(c2.getLocalName()); //use lexical order
-            }
+            log.warn("Skipped inverse collection for {} -- couldn't determine its source class", prop.getIRI());
         }
     }
     
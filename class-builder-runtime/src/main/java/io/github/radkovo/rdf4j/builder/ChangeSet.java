@@ -0,0 +1,88 @@
+/**
+ * ChangeSet.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+/**
+ * A set of changes of a model: the statements to be removed and the statements to be added.
+ * The removed statements are removed from all the contexts of the target; the added statements
+ * are added without a context (to the default context) unless the contexts are specified.
+ */
+public class ChangeSet
+{
+    private final Model added;
+    private final Model removed;
+
+
+    /**
+     * Creates an empty change set.
+     */
+    public ChangeSet()
+    {
+        added = new LinkedHashModel();
+        removed = new LinkedHashModel();
+    }
+
+    /**
+     * Gets the statements to be added.
+     * @return The model of the added statements
+     */
+    public Model getAdded()
+    {
+        return added;
+    }
+
+    /**
+     * Gets the statements to be removed.
+     * @return The model of the removed statements
+     */
+    public Model getRemoved()
+    {
+        return removed;
+    }
+
+    /**
+     * Checks whether there are no changes.
+     * @return {@code true} when no statements are added or removed
+     */
+    public boolean isEmpty()
+    {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Applies the changes to a model. The removed statements are removed first.
+     * @param model The model to update
+     */
+    public void applyTo(Model model)
+    {
+        for (Statement st : removed)
+            model.remove(st.getSubject(), st.getPredicate(), st.getObject());
+        model.addAll(added);
+    }
+
+    /**
+     * Applies the changes to a repository. The changes are applied within the current transaction
+     * of the connection (if any) so that multiple change sets may be committed at once.
+     * @param connection The repository connection
+     * @param contexts The contexts to add the statements to (the default context when not specified)
+     */
+    public void applyTo(RepositoryConnection connection, Resource... contexts)
+    {
+        connection.remove(removed);
+        connection.add(added, contexts);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ChangeSet[+" + added.size() + " -" + removed.size() + "]";
+    }
+
+}
@@ -0,0 +1,272 @@
+/**
+ * ConcurrentTargetModel.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+
+/**
+ * A thread-safe target that allows adding entities from multiple threads at once. The IRIs
+ * of the added entities are shared in a concurrent map; every thread adds the entities using
+ * its own work queue and collects the statements in its own buffer. The full buffers are passed
+ * to the underlying model or RDF handler in batches under a lock.
+ * <p>
+ * When all the entities have been added, {@link #flush()} (or {@link #endRDF()} for a handler)
+ * must be called for passing the remaining buffered statements. It must not be called
+ * while other threads are still adding entities.
+ */
+public class ConcurrentTargetModel extends TargetModel
+{
+    /** The default number of statements buffered by each thread */
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    
+    private static final ValueFactory vf = SimpleValueFactory.getInstance();
+    
+    private final RDFHandler handler;
+    private final int batchSize;
+    /** IRIs of the entities already added -> their classes */
+    private final ConcurrentHashMap<IRI, Class<?>> added;
+    /** Entities added with the IRI of an already added entity of another class */
+    private final Set<RDFEntity> conflicting;
+    /** The workers created since the last flush */
+    private final ConcurrentLinkedQueue<Worker> workers;
+    /** The worker of the current thread; replaced on flush so that the threads do not keep the old workers */
+    private ThreadLocal<Worker> worker;
+    /** Guards the underlying model or handler */
+    private final Object lock = new Object();
+    
+    
+    /**
+     * Creates a target encapsulating a given model.
+     * @param model The RDF4J Model to be used for storage.
+     */
+    public ConcurrentTargetModel(Model model)
+    {
+        this(model, null, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Creates a target that sends the statements to a RDF handler.
+     * @param handler The RDF handler that receives the statements
+     */
+    public ConcurrentTargetModel(RDFHandler handler)
+    {
+        this(null, handler, DEFAULT_BATCH_SIZE);
+    }
+    
+    /**
+     * Creates a target that stores the statements to a model or sends them to a RDF handler.
+     * @param model The RDF4J Model to be used for storage or {@code null} when a handler is used
+     * @param handler The RDF handler that receives the statements or {@code null} when a model is used
+     * @param batchSize The number of statements buffered by each thread
+     */
+    protected ConcurrentTargetModel(Model model, RDFHandler handler, int batchSize)
+    {
+        super(model);
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        this.handler = handler;
+        this.batchSize = batchSize;
+        added = new ConcurrentHashMap<>();
+        conflicting = ConcurrentHashMap.newKeySet();
+        workers = new ConcurrentLinkedQueue<>();
+        worker = createWorkerLocal();
+    }
+    
+    /**
+     * Returns the handler that receives the statements.
+     * @return The RDF handler or {@code null} when the statements are stored in a model
+     */
+    public RDFHandler getHandler()
+    {
+        return handler;
+    }
+    
+    /**
+     * Signals the start of the RDF data to the handler.
+     * @throws RDFHandlerException
+     */
+    public void startRDF() throws RDFHandlerException
+    {
+        if (handler != null)
+            handler.startRDF();
+    }
+    
+    /**
+     * Passes all the buffered statements and signals the end of the RDF data to the handler.
+     * @throws RDFHandlerException
+     */
+    public void endRDF() throws RDFHandlerException
+    {
+        flush();
+        if (handler != null)
+            handler.endRDF();
+    }
+    
+    /**
+     * Passes the statements buffered by all the threads to the underlying model or handler.
+     * The entities left in the queues of the threads by a failed storing are stored first.
+     * The workers of the threads are discarded; the threads create new ones when adding
+     * further entities.
+     */
+    public void flush()
+    {
+        worker = createWorkerLocal();
+        Worker w;
+        while ((w = workers.poll()) != null)
+        {
+            w.process(this);
+            w.flush(this);
+        }
+    }
+    
+    @Override
+    public int getAddedCount()
+    {
+        return added.size() + conflicting.size();
+    }
+
+    @Override
+    public boolean isAdded(IRI iri)
+    {
+        return added.containsKey(iri);
+    }
+
+    @Override
+    public void addStatement(Resource subject, IRI predicate, Value object)
+    {
+        worker.get().addStatement(vf.createStatement(subject, predicate, object), this);
+    }
+
+    @Override
+    public void add(RDFEntity entity)
+    {
+        final Worker w = worker.get();
+        if (register(entity))
+            w.add(entity, this);
+        else
+            w.process(this); //resume a failed storing
+    }
+
+    @Override
+    protected boolean register(RDFEntity entity)
+    {
+        return accept(entity, added.putIfAbsent(entity.getIRI(), entity.getClass()), conflicting);
+    }
+
+    /**
+     * Adds a collection of entities to the model in parallel using the common fork-join pool.
+     * @param entities A collection of entities to add.
+     */
+    @Override
+    public void addAllParallel(Collection<? extends RDFEntity> entities)
+    {
+        entities.parallelStream().forEach(this::add);
+    }
+    
+    /**
+     * Adds a collection of entities to the model in parallel using the given fork-join pool.
+     * @param entities A collection of entities to add.
+     * @param pool The fork-join pool to use.
+     */
+    public void addAllParallel(Collection<? extends RDFEntity> entities, ForkJoinPool pool)
+    {
+        pool.submit(() -> entities.parallelStream().forEach(this::add)).join();
+    }
+    
+    private ThreadLocal<Worker> createWorkerLocal()
+    {
+        return ThreadLocal.withInitial(() -> {
+            final Worker ret = new Worker();
+            workers.add(ret);
+            return ret;
+        });
+    }
+    
+    //=====================================================================================
+    
+    /**
+     * The state of a single thread. It keeps no reference to the target so that the thread-local
+     * values do not keep the target reachable.
+     */
+    private static class Worker
+    {
+        private final ArrayDeque<RDFEntity> pending = new ArrayDeque<>();
+        private boolean processing;
+        private final List<Statement> buffer = new ArrayList<>();
+        
+        public void add(RDFEntity entity, ConcurrentTargetModel target)
+        {
+            pending.add(entity);
+            process(target);
+        }
+        
+        /**
+         * Stores the pending entities. When storing an entity fails, the entity and the rest
+         * of the queue are kept for the next call.
+         */
+        public void process(ConcurrentTargetModel target)
+        {
+            if (!processing)
+            {
+                processing = true;
+                try
+                {
+                    RDFEntity e;
+                    while ((e = pending.peek()) != null)
+                    {
+                        target.store(e);
+                        pending.poll();
+                    }
+                }
+                finally
+                {
+                    processing = false;
+                }
+            }
+        }
+        
+        public void addStatement(Statement st, ConcurrentTargetModel target)
+        {
+            buffer.add(st);
+            if (buffer.size() >= target.batchSize)
+                flush(target);
+        }
+        
+        public void flush(ConcurrentTargetModel target)
+        {
+            if (!buffer.isEmpty())
+            {
+                synchronized (target.lock)
+                {
+                    if (target.handler != null)
+                    {
+                        for (Statement st : buffer)
+                            target.handler.handleStatement(st);
+                    }
+                    else
+                        target.getModel().addAll(buffer);
+                }
+                buffer.clear();
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,126 @@
+/**
+ * DeltaTargetModel.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+
+/**
+ * A target that computes the changes of the stored state of the entities instead of adding
+ * all their statements. For the entities with changed properties (see {@link RDFEntity#markDirty(IRI)}),
+ * the current statements of the changed properties are compared to the statements found in the source
+ * of the stored state; the differences are collected in a {@link ChangeSet}. The new entities
+ * are stored as a whole; their statements not present in the source are added. The unchanged entities
+ * are not converted to statements; only their references are followed in order to find the changed
+ * entities (see {@link RDFEntity#addReferences(TargetModel)}).
+ * <p>
+ * The processed entities are marked clean, i.e. the resulting change set is expected to be applied
+ * to the target model or repository.
+ */
+public class DeltaTargetModel extends TargetModel
+{
+    private static final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    private final EntitySource source;
+    private final ChangeSet changes;
+    /** The entity being stored */
+    private RDFEntity current;
+    /** The properties of the current entity to store ({@code null} for all the properties) */
+    private Set<IRI> properties;
+    /** The statements of the current entity */
+    private final Set<Statement> statements;
+
+
+    /**
+     * Creates a target that computes the changes of a model.
+     * @param model The model that contains the stored state of the entities
+     */
+    public DeltaTargetModel(Model model)
+    {
+        this(new ModelEntitySource(model));
+    }
+
+    /**
+     * Creates a target that computes the changes of the state provided by an entity source
+     * (e.g. a {@link RepositoryEntitySource}).
+     * @param source The source of the stored state of the entities
+     */
+    public DeltaTargetModel(EntitySource source)
+    {
+        super();
+        this.source = source;
+        changes = new ChangeSet();
+        statements = new LinkedHashSet<>();
+    }
+
+    /**
+     * Gets the changes computed so far.
+     * @return The change set
+     */
+    public ChangeSet getChanges()
+    {
+        return changes;
+    }
+
+    @Override
+    public void addStatement(Resource subject, IRI predicate, Value object)
+    {
+        if (current == null) //not emitted by an entity
+            changes.getAdded().add(subject, predicate, object);
+        else if (properties == null || properties.contains(predicate))
+            statements.add(vf.createStatement(subject, predicate, object));
+    }
+
+    @Override
+    protected void store(RDFEntity entity)
+    {
+        if (!entity.isDirty())
+        {
+            entity.addReferences(this); //only look for the changed entities
+            return;
+        }
+        current = entity;
+        if (entity.isPersistent())
+            properties = entity.getDirtyProperties();
+        else
+            properties = null;
+        try
+        {
+            entity.addToModel(this);
+            computeChanges(entity.getIRI());
+            entity.markClean();
+        }
+        finally
+        {
+            current = null;
+            properties = null;
+            statements.clear();
+        }
+    }
+
+    /**
+     * Compares the statements of the current entity with the stored ones.
+     */
+    private void computeChanges(IRI subject)
+    {
+        source.forEachStatement(subject, (pred, value) -> {
+            if (properties == null || properties.contains(pred))
+            {
+                final Statement st = vf.createStatement(subject, pred, value);
+                if (!statements.remove(st) && properties != null)
+                    changes.getRemoved().add(st); //the new entities only add the statements
+            }
+        });
+        changes.getAdded().addAll(statements);
+    }
+
+}
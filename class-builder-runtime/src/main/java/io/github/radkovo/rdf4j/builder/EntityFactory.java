@@ -5,6 +5,12 @@
  */
 package io.github.radkovo.rdf4j.builder;
 
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+
 /**
  * A common base class for all the generated entity factories.
  * 
@@ -13,4 +19,84 @@ package io.github.radkovo.rdf4j.builder;
 public interface EntityFactory
 {
 
+    /**
+     * Creates a context for loading a graph of entities from a model using this factory.
+     * @param model The source model
+     * @return The new load context
+     */
+    default LoadContext createLoadContext(Model model)
+    {
+        return createLoadContext(new ModelEntitySource(model));
+    }
+    
+    /**
+     * Creates a context for loading a graph of entities from an entity source using this factory.
+     * @param source The entity source
+     * @return The new load context
+     */
+    default LoadContext createLoadContext(EntitySource source)
+    {
+        return new LoadContext(source, this);
+    }
+    
+    /**
+     * Creates an entity of the given class.
+     * @param classIRI The IRI of the entity class
+     * @param iri The IRI of the new entity
+     * @return The new entity or {@code null} when the class is not known to this factory
+     */
+    default RDFEntity createEntity(IRI classIRI, IRI iri)
+    {
+        return null;
+    }
+    
+    /**
+     * Gets the known subclasses of a class. The more specific classes precede the more general ones.
+     * @param classIRI The IRI of the class
+     * @return The list of the subclass IRIs (not including the class itself)
+     */
+    default List<IRI> getSubclassIRIs(IRI classIRI)
+    {
+        return Collections.emptyList();
+    }
+    
+    /**
+     * Gets the SPARQL CONSTRUCT query that fetches the statements loaded by the entities of a class.
+     * The subjects are bound to the {@code ?s} variable by a {@code VALUES} clause appended to the query.
+     * @param classIRI The IRI of the class
+     * @return The query or {@code null} when the class is not known to this factory
+     */
+    default String getConstructQuery(IRI classIRI)
+    {
+        return null;
+    }
+    
+    /**
+     * Loads all the instances of a class from a model. The instances are loaded together
+     * with all the referenced entities using a single load context.
+     * @param model The source model
+     * @param classIRI The IRI of the class
+     * @param type The Java class of the entities
+     * @param includeSubclasses Include the instances of the subclasses of the class?
+     * @return The list of the loaded instances
+     */
+    default <T extends RDFEntity> List<T> loadAll(Model model, IRI classIRI, Class<T> type, boolean includeSubclasses)
+    {
+        return createLoadContext(model).loadAll(classIRI, type, includeSubclasses);
+    }
+    
+    /**
+     * Loads all the instances of a class from an entity source. The instances are loaded together
+     * with all the referenced entities using a single load context.
+     * @param source The entity source
+     * @param classIRI The IRI of the class
+     * @param type The Java class of the entities
+     * @param includeSubclasses Include the instances of the subclasses of the class?
+     * @return The list of the loaded instances
+     */
+    default <T extends RDFEntity> List<T> loadAll(EntitySource source, IRI classIRI, Class<T> type, boolean includeSubclasses)
+    {
+        return createLoadContext(source).loadAll(classIRI, type, includeSubclasses);
+    }
+    
 }
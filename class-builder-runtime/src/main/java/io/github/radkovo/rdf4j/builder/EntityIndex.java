@@ -0,0 +1,239 @@
+/**
+ * EntityIndex.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+
+/**
+ * A compact read-only index of the statements of a model used for loading entities.
+ * All the distinct values are stored once in a dictionary and referred by their int IDs.
+ * The statements are stored as runs of predicate and object IDs grouped by their subjects
+ * in primitive arrays (the compressed sparse row layout); the same layout is used for
+ * the instances of the classes.
+ * <p>
+ * The index is built in linear time and it is never modified afterwards. The statements are read
+ * directly from the arrays without filtering the model; the index may be safely used by multiple
+ * concurrent readers. The changes of the model made after creating the index are not reflected.
+ */
+public class EntityIndex implements EntitySource
+{
+    /** ID -> value */
+    private Value[] values;
+    /** The number of values in the dictionary */
+    private int valueCount;
+    /** Open addressing hash table: value hash -> ID + 1 (0 for empty slots) */
+    private int[] table;
+
+    /** Subject ID -> the start of its run in {@link #predicates} and {@link #objects} */
+    private final int[] offsets;
+    private final int[] predicates;
+    private final int[] objects;
+    /** Class ID -> the start of its run in {@link #instances} */
+    private final int[] typeOffsets;
+    private final int[] instances;
+
+
+    /**
+     * Creates an index of the statements of a model.
+     * @param model The source model
+     */
+    public EntityIndex(Model model)
+    {
+        final int size = model.size();
+        values = new Value[Math.max(16, size)];
+        table = new int[tableSize(values.length)];
+
+        //encode the statements
+        int[] subjects = new int[size];
+        int[] preds = new int[size];
+        int[] objs = new int[size];
+        int n = 0;
+        for (Statement st : model)
+        {
+            if (n == subjects.length) //the model has changed while iterating
+            {
+                subjects = Arrays.copyOf(subjects, 2 * n + 1);
+                preds = Arrays.copyOf(preds, 2 * n + 1);
+                objs = Arrays.copyOf(objs, 2 * n + 1);
+            }
+            subjects[n] = encode(st.getSubject());
+            preds[n] = encode(st.getPredicate());
+            objs[n] = encode(st.getObject());
+            n++;
+        }
+        values = Arrays.copyOf(values, valueCount);
+
+        //group the statements by their subjects
+        offsets = new int[valueCount + 1];
+        for (int i = 0; i < n; i++)
+            offsets[subjects[i] + 1]++;
+        for (int i = 0; i < valueCount; i++)
+            offsets[i + 1] += offsets[i];
+        predicates = new int[n];
+        objects = new int[n];
+        final int[] pos = Arrays.copyOf(offsets, valueCount);
+        for (int i = 0; i < n; i++)
+        {
+            final int dest = pos[subjects[i]]++;
+            predicates[dest] = preds[i];
+            objects[dest] = objs[i];
+        }
+
+        //group the typed subjects by their classes
+        final int type = lookup(RDF.TYPE);
+        typeOffsets = new int[valueCount + 1];
+        int typeCount = 0;
+        if (type >= 0)
+        {
+            for (int i = 0; i < n; i++)
+            {
+                if (preds[i] == type)
+                {
+                    typeOffsets[objs[i] + 1]++;
+                    typeCount++;
+                }
+            }
+        }
+        for (int i = 0; i < valueCount; i++)
+            typeOffsets[i + 1] += typeOffsets[i];
+        instances = new int[typeCount];
+        if (typeCount > 0)
+        {
+            final int[] tpos = Arrays.copyOf(typeOffsets, valueCount);
+            for (int i = 0; i < n; i++)
+            {
+                if (preds[i] == type)
+                    instances[tpos[objs[i]]++] = subjects[i];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of statements in the index.
+     * @return The number of statements
+     */
+    public int size()
+    {
+        return predicates.length;
+    }
+
+    /**
+     * Gets the number of distinct values in the dictionary.
+     * @return The number of values
+     */
+    public int getValueCount()
+    {
+        return valueCount;
+    }
+
+    @Override
+    public void forEachStatement(Resource subject, BiConsumer<IRI, Value> consumer)
+    {
+        final int id = lookup(subject);
+        if (id >= 0)
+        {
+            final int end = offsets[id + 1];
+            for (int i = offsets[id]; i < end; i++)
+                consumer.accept((IRI) values[predicates[i]], values[objects[i]]);
+        }
+    }
+
+    @Override
+    public void forEachInstance(IRI classIRI, Consumer<IRI> consumer)
+    {
+        final int id = lookup(classIRI);
+        if (id >= 0)
+        {
+            final int end = typeOffsets[id + 1];
+            for (int i = typeOffsets[id]; i < end; i++)
+            {
+                final Value instance = values[instances[i]];
+                if (instance instanceof IRI)
+                    consumer.accept((IRI) instance);
+            }
+        }
+    }
+
+    //=====================================================================================
+
+    /**
+     * Finds the ID of a value.
+     * @param value the value
+     * @return the value ID or -1 when the value is not present in the index
+     */
+    private int lookup(Value value)
+    {
+        final int mask = table.length - 1;
+        for (int slot = hash(value) & mask; table[slot] != 0; slot = (slot + 1) & mask)
+        {
+            final int id = table[slot] - 1;
+            if (values[id].equals(value))
+                return id;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the ID of a value and adds the value to the dictionary when necessary.
+     * @param value the value
+     * @return the value ID
+     */
+    private int encode(Value value)
+    {
+        final int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        for (; table[slot] != 0; slot = (slot + 1) & mask)
+        {
+            final int id = table[slot] - 1;
+            if (values[id].equals(value))
+                return id;
+        }
+        final int id = valueCount++;
+        if (id == values.length)
+            values = Arrays.copyOf(values, 2 * id);
+        values[id] = value;
+        table[slot] = id + 1;
+        if (valueCount > table.length / 2)
+            rehash(2 * table.length);
+        return id;
+    }
+
+    private void rehash(int newSize)
+    {
+        table = new int[newSize];
+        final int mask = newSize - 1;
+        for (int id = 0; id < valueCount; id++)
+        {
+            int slot = hash(values[id]) & mask;
+            while (table[slot] != 0)
+                slot = (slot + 1) & mask;
+            table[slot] = id + 1;
+        }
+    }
+
+    private static int hash(Value value)
+    {
+        final int h = value.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Computes the hash table size for the expected number of values (a power of two
+     * at least twice the number of values).
+     */
+    private static int tableSize(int expected)
+    {
+        return Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+    }
+
+}
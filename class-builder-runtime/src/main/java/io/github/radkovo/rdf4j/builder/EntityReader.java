@@ -0,0 +1,202 @@
+/**
+ * EntityReader.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+import org.eclipse.rdf4j.rio.RDFParseException;
+import org.eclipse.rdf4j.rio.RDFParser;
+import org.eclipse.rdf4j.rio.Rio;
+import org.eclipse.rdf4j.rio.helpers.AbstractRDFHandler;
+
+/**
+ * A RDF handler that creates entities directly from a stream of statements grouped by their
+ * subjects (e.g. a subject-sorted N-Triples or N-Quads file). The consecutive statements with
+ * the same subject are collected and when the subject changes, an entity is created for the
+ * most specific {@code rdf:type} of the subject known to the factory, loaded from the collected
+ * statements and passed to the consumer. Only the statements of a single subject are kept in memory.
+ * <p>
+ * The subjects with no type known to the factory are skipped. The referenced entities are created
+ * in their initial state with the IRI only; the statements of a subject that appear repeatedly
+ * in the input (i.e. the input is not grouped) produce a separate entity for every group.
+ */
+public class EntityReader extends AbstractRDFHandler
+{
+    private final EntityFactory factory;
+    private final Consumer<? super RDFEntity> consumer;
+    private final GroupSource group;
+    private long entityCount;
+    private long skippedCount;
+
+
+    /**
+     * Creates a new reader.
+     * @param factory The factory used for creating the entities
+     * @param consumer The consumer that receives the loaded entities
+     */
+    public EntityReader(EntityFactory factory, Consumer<? super RDFEntity> consumer)
+    {
+        this.factory = factory;
+        this.consumer = consumer;
+        this.group = new GroupSource();
+    }
+
+    /**
+     * Reads the entities from an input stream.
+     * @param in The input stream
+     * @param format The RDF format of the input
+     * @param factory The factory used for creating the entities
+     * @param consumer The consumer that receives the loaded entities
+     * @throws IOException
+     * @throws RDFParseException
+     * @throws RDFHandlerException
+     */
+    public static void read(InputStream in, RDFFormat format, EntityFactory factory, Consumer<? super RDFEntity> consumer)
+            throws IOException, RDFParseException, RDFHandlerException
+    {
+        final RDFParser parser = Rio.createParser(format);
+        parser.setRDFHandler(new EntityReader(factory, consumer));
+        parser.parse(in, "");
+    }
+
+    /**
+     * Gets the number of entities passed to the consumer.
+     * @return The number of entities
+     */
+    public long getEntityCount()
+    {
+        return entityCount;
+    }
+
+    /**
+     * Gets the number of subjects skipped because of no known type.
+     * @return The number of skipped subjects
+     */
+    public long getSkippedCount()
+    {
+        return skippedCount;
+    }
+
+    @Override
+    public void startRDF() throws RDFHandlerException
+    {
+        group.clear(null);
+        entityCount = 0;
+        skippedCount = 0;
+    }
+
+    @Override
+    public void handleStatement(Statement st) throws RDFHandlerException
+    {
+        if (!st.getSubject().equals(group.subject))
+        {
+            flush();
+            group.clear(st.getSubject());
+        }
+        group.add(st.getPredicate(), st.getObject());
+    }
+
+    @Override
+    public void endRDF() throws RDFHandlerException
+    {
+        flush();
+        group.clear(null);
+    }
+
+    /**
+     * Creates and loads the entity from the statements collected for the current subject.
+     */
+    private void flush()
+    {
+        if (group.subject == null)
+            return;
+
+        //find the most specific type known to the factory
+        RDFEntity entity = null;
+        IRI entityType = null;
+        if (group.subject instanceof IRI)
+        {
+            for (IRI type : group.types)
+            {
+                if (entity == null || factory.getSubclassIRIs(entityType).contains(type))
+                {
+                    final RDFEntity candidate = factory.createEntity(type, (IRI) group.subject);
+                    if (candidate != null)
+                    {
+                        entity = candidate;
+                        entityType = type;
+                    }
+                }
+            }
+        }
+
+        if (entity != null)
+        {
+            factory.createLoadContext(group).load(entity);
+            entityCount++;
+            consumer.accept(entity);
+        }
+        else
+            skippedCount++;
+    }
+
+    //=====================================================================================
+
+    /**
+     * The statements of the current subject.
+     */
+    private static class GroupSource implements EntitySource
+    {
+        public Resource subject;
+        public final List<IRI> predicates = new ArrayList<>();
+        public final List<Value> objects = new ArrayList<>();
+        public final List<IRI> types = new ArrayList<>();
+
+        public void clear(Resource subject)
+        {
+            this.subject = subject;
+            predicates.clear();
+            objects.clear();
+            types.clear();
+        }
+
+        public void add(IRI predicate, Value object)
+        {
+            predicates.add(predicate);
+            objects.add(object);
+            if (RDF.TYPE.equals(predicate) && object instanceof IRI)
+                types.add((IRI) object);
+        }
+
+        @Override
+        public void forEachStatement(Resource subject, BiConsumer<IRI, Value> consumer)
+        {
+            if (subject.equals(this.subject))
+            {
+                for (int i = 0; i < predicates.size(); i++)
+                    consumer.accept(predicates.get(i), objects.get(i));
+            }
+        }
+
+        @Override
+        public void forEachInstance(IRI classIRI, Consumer<IRI> consumer)
+        {
+            if (subject instanceof IRI && types.contains(classIRI))
+                consumer.accept((IRI) subject);
+        }
+    }
+
+}
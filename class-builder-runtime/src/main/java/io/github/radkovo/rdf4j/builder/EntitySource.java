@@ -0,0 +1,76 @@
+/**
+ * EntitySource.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+
+/**
+ * A source of the statements the entities are loaded from. The entities loaded lazily keep
+ * a reference to their source and read the referenced entities from it on first access.
+ */
+public interface EntitySource
+{
+
+    /**
+     * Passes all the statements with the given subject to a consumer.
+     * @param subject The statement subject
+     * @param consumer The consumer that receives the predicate and the object of each statement
+     */
+    public void forEachStatement(Resource subject, BiConsumer<IRI, Value> consumer);
+    
+    /**
+     * Passes the IRIs of all the resources of the given type to a consumer. Only the direct
+     * {@code rdf:type} statements are considered (no inference).
+     * @param classIRI The class IRI
+     * @param consumer The consumer that receives the instance IRIs
+     */
+    public void forEachInstance(IRI classIRI, Consumer<IRI> consumer);
+    
+    /**
+     * Passes the types ({@code rdf:type} values) of a resource to a consumer. The types are used
+     * for creating the referenced entities of their most specific classes. By default, the types
+     * are obtained from {@link #forEachStatement(Resource, BiConsumer)}.
+     * @param subject The resource
+     * @param consumer The consumer that receives the type IRIs
+     */
+    public default void forEachType(Resource subject, Consumer<IRI> consumer)
+    {
+        forEachStatement(subject, (pred, value) -> {
+            if (RDF.TYPE.equals(pred) && value instanceof IRI)
+                consumer.accept((IRI) value);
+        });
+    }
+    
+    /**
+     * Checks whether the statements of a resource are available in this source. The entities
+     * whose statements are not available are left unloaded (not persistent) so that they are
+     * not mistaken for entities with no properties. All the resources are available by default.
+     * @param subject The resource
+     * @return {@code true} when the statements of the resource may be read
+     */
+    public default boolean isAvailable(Resource subject)
+    {
+        return true;
+    }
+    
+    /**
+     * Notifies the source that the statements of the given entities will be read soon so that
+     * they may be fetched at once. The entities are passed level by level while loading a graph
+     * of entities. Nothing is done by default.
+     * @param entities The entities to be loaded
+     * @param level The distance of the entities from the entities whose loading was requested
+     * (0 for the requested entities, 1 for the entities they refer to, etc.)
+     */
+    public default void prefetch(Collection<? extends RDFEntity> entities, int level)
+    {
+    }
+    
+}
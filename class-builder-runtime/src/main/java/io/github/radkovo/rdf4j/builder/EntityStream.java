@@ -0,0 +1,164 @@
+/**
+ * EntityStream.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+
+/**
+ * Streams of the instances of a generated entity class. The stream is backed by a spliterator
+ * over the instance IRIs that may be split for parallel processing (e.g. in the common fork-join
+ * pool used by the parallel streams). Every part of the split loads its entities using its own
+ * {@link LoadContext}; the entities loaded in different parts are therefore independent of each other
+ * and an entity referenced from several parts is loaded once in each of them.
+ */
+public class EntityStream
+{
+    
+    /**
+     * Creates a stream of all the instances of a class in a model. For parallel streams, the model is
+     * copied to an {@link EntityIndex} first so that the parallel tasks never access the model itself.
+     * @param model The source model
+     * @param classIRI The IRI of the class
+     * @param type The Java class of the entities
+     * @param factory The factory used for creating the entities
+     * @param includeSubclasses Include the instances of the subclasses of the class?
+     * @param parallel Create a parallel stream?
+     * @return The stream of entities
+     */
+    public static <T extends RDFEntity> Stream<T> of(Model model, IRI classIRI, Class<T> type,
+            EntityFactory factory, boolean includeSubclasses, boolean parallel)
+    {
+        final EntitySource source = parallel ? new EntityIndex(model) : new ModelEntitySource(model);
+        return of(source, classIRI, type, factory, includeSubclasses, parallel);
+    }
+    
+    /**
+     * Creates a stream of all the instances of a class available in an entity source. For parallel
+     * streams, the source must be safe for concurrent readers.
+     * @param source The entity source
+     * @param classIRI The IRI of the class
+     * @param type The Java class of the entities
+     * @param factory The factory used for creating the entities
+     * @param includeSubclasses Include the instances of the subclasses of the class?
+     * @param parallel Create a parallel stream?
+     * @return The stream of entities
+     */
+    public static <T extends RDFEntity> Stream<T> of(EntitySource source, IRI classIRI, Class<T> type,
+            EntityFactory factory, boolean includeSubclasses, boolean parallel)
+    {
+        //instance IRI -> its most specific class; the most specific classes go first
+        final List<IRI> classes = new ArrayList<>();
+        if (includeSubclasses)
+            classes.addAll(factory.getSubclassIRIs(classIRI));
+        classes.add(classIRI);
+        final Map<IRI, IRI> found = new LinkedHashMap<>();
+        for (IRI cls : classes)
+            source.forEachInstance(cls, iri -> found.putIfAbsent(iri, cls));
+        
+        final IRI[] subjects = new IRI[found.size()];
+        final IRI[] types = new IRI[found.size()];
+        int i = 0;
+        for (Map.Entry<IRI, IRI> entry : found.entrySet())
+        {
+            subjects[i] = entry.getKey();
+            types[i] = entry.getValue();
+            i++;
+        }
+        return StreamSupport.stream(new EntitySpliterator<>(source, factory, type, subjects, types, 0, subjects.length), parallel);
+    }
+    
+    //=====================================================================================
+    
+    /**
+     * A spliterator over a range of the instance IRIs. The load context is created on first use
+     * so that it is always used by a single thread only.
+     */
+    private static class EntitySpliterator<T extends RDFEntity> implements Spliterator<T>
+    {
+        private final EntitySource source;
+        private final EntityFactory factory;
+        private final Class<T> type;
+        private final IRI[] subjects;
+        private final IRI[] types;
+        private int index;
+        private final int fence;
+        private LoadContext context;
+        
+        
+        public EntitySpliterator(EntitySource source, EntityFactory factory, Class<T> type,
+                IRI[] subjects, IRI[] types, int index, int fence)
+        {
+            this.source = source;
+            this.factory = factory;
+            this.type = type;
+            this.subjects = subjects;
+            this.types = types;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action)
+        {
+            if (index < fence)
+            {
+                action.accept(load(index++));
+                return true;
+            }
+            else
+                return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action)
+        {
+            while (index < fence)
+                action.accept(load(index++));
+        }
+
+        @Override
+        public Spliterator<T> trySplit()
+        {
+            final int mid = (index + fence) >>> 1;
+            if (mid <= index || context != null)
+                return null; //too small or already being processed
+            final Spliterator<T> prefix = new EntitySpliterator<>(source, factory, type, subjects, types, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize()
+        {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics()
+        {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | DISTINCT;
+        }
+        
+        private T load(int i)
+        {
+            if (context == null)
+                context = factory.createLoadContext(source);
+            final T ret = context.getEntity(subjects[i], types[i], type);
+            context.processQueue();
+            return ret;
+        }
+        
+    }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * HandlerTargetModel.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.rio.RDFHandler;
+import org.eclipse.rdf4j.rio.RDFHandlerException;
+
+/**
+ * A target that passes the statements directly to a Rio {@link RDFHandler} (e.g. a {@code RDFWriter})
+ * instead of storing them in a model. The duplicate entities are ignored in the same way as
+ * in {@link TargetModel}. For streaming large graphs, disable retaining the added entities
+ * ({@link #setRetainEntities(boolean)}) so that only their IRIs and classes are kept in memory.
+ * <p>
+ * The caller is responsible for starting and ending the RDF processing by calling {@link #startRDF()}
+ * and {@link #endRDF()} before and after adding the entities.
+ */
+public class HandlerTargetModel extends TargetModel
+{
+    private static final ValueFactory vf = SimpleValueFactory.getInstance();
+    
+    private RDFHandler handler;
+    
+
+    /**
+     * Creates a target that sends the statements to a handler.
+     * @param handler The RDF handler that receives the statements
+     */
+    public HandlerTargetModel(RDFHandler handler)
+    {
+        super();
+        this.handler = handler;
+    }
+
+    /**
+     * Returns the handler that receives the statements.
+     * @return The RDF handler
+     */
+    public RDFHandler getHandler()
+    {
+        return handler;
+    }
+    
+    /**
+     * Signals the start of the RDF data to the handler.
+     * @throws RDFHandlerException
+     */
+    public void startRDF() throws RDFHandlerException
+    {
+        handler.startRDF();
+    }
+    
+    /**
+     * Signals the end of the RDF data to the handler.
+     * @throws RDFHandlerException
+     */
+    public void endRDF() throws RDFHandlerException
+    {
+        handler.endRDF();
+    }
+    
+    /**
+     * Passes a namespace declaration to the handler.
+     * @param prefix The namespace prefix
+     * @param uri The namespace URI
+     * @throws RDFHandlerException
+     */
+    public void handleNamespace(String prefix, String uri) throws RDFHandlerException
+    {
+        handler.handleNamespace(prefix, uri);
+    }
+
+    @Override
+    public void addStatement(Resource subject, IRI predicate, Value object)
+    {
+        handler.handleStatement(vf.createStatement(subject, predicate, object));
+    }
+
+}
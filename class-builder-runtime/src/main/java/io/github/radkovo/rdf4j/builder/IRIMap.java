@@ -0,0 +1,159 @@
+/**
+ * IRIMap.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * A compact map with IRI keys. The entries are stored in an open addressing hash table together
+ * with the hash codes of the keys so that no objects are allocated per entry and the IRIs are compared
+ * by {@code equals()} only when their hashes match. The {@code null} values are not allowed.
+ *
+ * @param <V> the type of the values
+ */
+public class IRIMap<V>
+{
+    private static final int INITIAL_CAPACITY = 64;
+
+    private IRI[] keys;
+    private int[] hashes;
+    private Object[] values;
+    private int size;
+
+
+    /**
+     * Creates an empty map.
+     */
+    public IRIMap()
+    {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map for the expected number of IRIs.
+     * @param expectedSize the expected number of IRIs
+     */
+    public IRIMap(int expectedSize)
+    {
+        final int capacity = Integer.highestOneBit(Math.max(expectedSize, INITIAL_CAPACITY / 2) * 2 - 1) << 1;
+        keys = new IRI[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Gets the number of IRIs in the map.
+     * @return the map size
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks whether the map is empty.
+     * @return {@code true} when the map contains no IRIs
+     */
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether the map contains the given IRI.
+     * @param iri the IRI to check
+     * @return {@code true} when the IRI is present in the map
+     */
+    public boolean containsKey(IRI iri)
+    {
+        return get(iri) != null;
+    }
+
+    /**
+     * Gets the value assigned to an IRI.
+     * @param iri the IRI
+     * @return the value or {@code null} when the IRI is not present in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V get(IRI iri)
+    {
+        final int h = hash(iri);
+        final int mask = keys.length - 1;
+        for (int slot = h & mask; keys[slot] != null; slot = (slot + 1) & mask)
+        {
+            if (hashes[slot] == h && keys[slot].equals(iri))
+                return (V) values[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Assigns a value to an IRI unless the IRI is already present in the map.
+     * @param iri the IRI to add
+     * @param value the value to assign
+     * @return {@code null} when the IRI has been added or the value already assigned to the IRI
+     */
+    @SuppressWarnings("unchecked")
+    public V putIfAbsent(IRI iri, V value)
+    {
+        if (value == null)
+            throw new NullPointerException("null values are not allowed");
+        final int h = hash(iri);
+        final int mask = keys.length - 1;
+        int slot = h & mask;
+        for (; keys[slot] != null; slot = (slot + 1) & mask)
+        {
+            if (hashes[slot] == h && keys[slot].equals(iri))
+                return (V) values[slot];
+        }
+        keys[slot] = iri;
+        hashes[slot] = h;
+        values[slot] = value;
+        size++;
+        if (size > keys.length / 2)
+            rehash(keys.length * 2);
+        return null;
+    }
+
+    /**
+     * Removes all the IRIs from the map.
+     */
+    public void clear()
+    {
+        keys = new IRI[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        values = new Object[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    private void rehash(int capacity)
+    {
+        final IRI[] oldKeys = keys;
+        final int[] oldHashes = hashes;
+        final Object[] oldValues = values;
+        keys = new IRI[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldKeys[i] != null)
+            {
+                int slot = oldHashes[i] & mask;
+                while (keys[slot] != null)
+                    slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                hashes[slot] = oldHashes[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(IRI iri)
+    {
+        final int h = iri.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,337 @@
+/**
+ * LoadContext.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A context of loading a graph of entities from an entity source. It maintains an identity map
+ * of the entities created while loading so that every entity is created and loaded only once
+ * even when referenced multiple times or in cycles. The referenced entities are not loaded
+ * recursively; they are put to a work queue that is processed iteratively.
+ * <p>
+ * The entities with lazily loaded properties keep a reference to the context and use it for
+ * resolving the referenced entities on first access. The context is not thread-safe.
+ */
+public class LoadContext
+{
+    private static final Logger log = LoggerFactory.getLogger(LoadContext.class);
+
+    private EntitySource source;
+    private EntityFactory factory;
+    /** Entity IRI -> the most specific entity created for the IRI */
+    private Map<IRI, RDFEntity> entities;
+    /** Entity IRI -> the entities of other classes created for the IRI (see {@link #getEntity(IRI, Class, Function)}) */
+    private Map<IRI, Map<Class<?>, RDFEntity>> conflicting;
+    /** All the entities scheduled for loading */
+    private Set<RDFEntity> scheduled;
+    /** Entities waiting for loading */
+    private ArrayDeque<RDFEntity> queue;
+    /** Property IRI -> the number of the values loaded for the entity being loaded */
+    private Map<IRI, Integer> valueCounts;
+
+
+    /**
+     * Creates a new load context.
+     * @param model The source model to load the entities from
+     * @param factory The factory used for creating the referenced entities
+     */
+    public LoadContext(Model model, EntityFactory factory)
+    {
+        this(new ModelEntitySource(model), factory);
+    }
+
+    /**
+     * Creates a new load context.
+     * @param source The source to load the entities from
+     * @param factory The factory used for creating the referenced entities
+     */
+    public LoadContext(EntitySource source, EntityFactory factory)
+    {
+        this.source = source;
+        this.factory = factory;
+        entities = new HashMap<>();
+        conflicting = new HashMap<>();
+        scheduled = Collections.newSetFromMap(new IdentityHashMap<>());
+        queue = new ArrayDeque<>();
+        valueCounts = new HashMap<>();
+    }
+
+    /**
+     * Gets the source of the statements.
+     * @return The entity source
+     */
+    public EntitySource getSource()
+    {
+        return source;
+    }
+
+    /**
+     * Gets the factory used for creating the referenced entities.
+     * @return The entity factory
+     */
+    public EntityFactory getFactory()
+    {
+        return factory;
+    }
+
+    /**
+     * Gets the number of distinct entity IRIs encountered.
+     * @return The number of entities
+     */
+    public int size()
+    {
+        return entities.size();
+    }
+
+    /**
+     * Gets an entity already created in this context.
+     * @param iri The entity IRI
+     * @return The entity or {@code null} when no entity with this IRI has been created yet
+     */
+    public RDFEntity getEntity(IRI iri)
+    {
+        return entities.get(iri);
+    }
+
+    /**
+     * Gets an entity of the given type for an IRI. When an entity has been already created
+     * in this context for the IRI, it is returned. Otherwise, a new entity is created
+     * and scheduled for loading. The new entity is created for the most specific class
+     * of the IRI found in the source ({@code rdf:type}) that is known to the factory and compatible
+     * with the required type; the creator is used when no such class is found. Thus, a single
+     * entity is created for each IRI even when it is referenced by properties with different ranges.
+     * <p>
+     * When the source does not provide the types, the entity created for the first reference
+     * may be incompatible with a later reference. Then, a separate entity of the required type
+     * is created for the later reference and a warning is logged. The separate entity is kept
+     * in the context as well and it is returned for all the further references that require its type.
+     * @param iri The entity IRI
+     * @param type The required entity type
+     * @param creator The function used for creating a new entity when its class is not known
+     * @return The entity
+     */
+    public <T extends RDFEntity> T getEntity(IRI iri, Class<T> type, Function<IRI, ? extends T> creator)
+    {
+        final T existing = findEntity(iri, type);
+        if (existing != null)
+            return existing;
+        T ret = createMostSpecific(iri, type);
+        if (ret == null)
+            ret = creator.apply(iri);
+        register(ret);
+        return ret;
+    }
+
+    /**
+     * Gets an entity of a known class for an IRI. When an entity has been already created
+     * in this context for the IRI, it is returned. Otherwise, a new entity is created using
+     * the {@link EntityFactory#createEntity(IRI, IRI)} method of the factory and scheduled for loading.
+     * @param iri The entity IRI
+     * @param classIRI The IRI of the entity class
+     * @param type The required entity type
+     * @return The entity
+     * @throws IllegalArgumentException when the class is not known to the factory or its entities
+     * are not instances of the required type
+     */
+    public <T extends RDFEntity> T getEntity(IRI iri, IRI classIRI, Class<T> type)
+    {
+        final T existing = findEntity(iri, type);
+        if (existing != null)
+            return existing;
+        final RDFEntity entity = factory.createEntity(classIRI, iri);
+        if (entity == null)
+            throw new IllegalArgumentException("Unknown entity class: " + classIRI);
+        if (!type.isInstance(entity))
+            throw new IllegalArgumentException("Entities of " + classIRI + " are not instances of " + type.getName());
+        final T ret = type.cast(entity);
+        register(ret);
+        return ret;
+    }
+
+    /**
+     * Counts a value of a property of the entity being loaded. The generated loaders use the result
+     * for keeping the first value of the functional properties and for filling the array properties.
+     * @param property The property IRI
+     * @return The number of the values of the property loaded before this one (0 for the first value)
+     */
+    public int nextValueIndex(IRI property)
+    {
+        return valueCounts.merge(property, 1, Integer::sum) - 1;
+    }
+
+    /**
+     * Gets the number of the values of a property loaded for the entity being loaded.
+     * @param property The property IRI
+     * @return The number of values counted by {@link #nextValueIndex(IRI)}
+     */
+    public int getValueCount(IRI property)
+    {
+        final Integer count = valueCounts.get(property);
+        return (count == null) ? 0 : count;
+    }
+
+    /**
+     * Starts counting the property values of another entity.
+     */
+    void resetValueCounts()
+    {
+        valueCounts.clear();
+    }
+
+    /**
+     * Loads an entity and all the entities referenced from it. Entities already loaded
+     * in this context are not loaded again.
+     * @param entity The entity to load
+     */
+    public void load(RDFEntity entity)
+    {
+        register(entity);
+        processQueue();
+    }
+
+    /**
+     * Loads all the instances of a class found in the source. Each instance is created using
+     * the {@link EntityFactory#createEntity(IRI, IRI)} method of the factory for its most specific
+     * class and it is loaded together with all the referenced entities.
+     * @param classIRI The IRI of the class
+     * @param type The Java class of the entities
+     * @param includeSubclasses Include the instances of the subclasses of the class?
+     * @return The list of the loaded instances
+     */
+    public <T extends RDFEntity> List<T> loadAll(IRI classIRI, Class<T> type, boolean includeSubclasses)
+    {
+        //the most specific classes go first so that each instance is created with its most specific type
+        final List<IRI> classes = new ArrayList<>();
+        if (includeSubclasses)
+            classes.addAll(factory.getSubclassIRIs(classIRI));
+        classes.add(classIRI);
+        
+        final List<T> ret = new ArrayList<>();
+        final Set<RDFEntity> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (IRI cls : classes)
+        {
+            source.forEachInstance(cls, iri -> {
+                final T entity = getEntity(iri, cls, type);
+                if (found.add(entity))
+                    ret.add(entity);
+            });
+        }
+        processQueue();
+        return ret;
+    }
+
+    /**
+     * Loads all the entities waiting in the queue including the entities discovered while loading.
+     */
+    public void processQueue()
+    {
+        //the queue is processed level by level so that the source may fetch each level at once
+        int level = 0;
+        while (!queue.isEmpty())
+        {
+            source.prefetch(queue, level++);
+            for (int n = queue.size(); n > 0; n--)
+                queue.poll().loadStatements(this);
+        }
+    }
+
+    /**
+     * Creates an entity of the most specific class of the IRI known to the factory.
+     * @return the new entity or {@code null} when no suitable class is known
+     */
+    private <T extends RDFEntity> T createMostSpecific(IRI iri, Class<T> type)
+    {
+        final List<IRI> types = new ArrayList<>(2);
+        source.forEachType(iri, types::add);
+        RDFEntity entity = null;
+        IRI entityType = null;
+        for (IRI cls : types)
+        {
+            if (entity == null || factory.getSubclassIRIs(entityType).contains(cls))
+            {
+                final RDFEntity candidate = factory.createEntity(cls, iri);
+                if (type.isInstance(candidate))
+                {
+                    entity = candidate;
+                    entityType = cls;
+                }
+            }
+        }
+        return type.cast(entity);
+    }
+
+    /**
+     * Finds an entity of the required type already created for an IRI.
+     * @return the entity or {@code null} when no entity of the type has been created for the IRI
+     */
+    private <T extends RDFEntity> T findEntity(IRI iri, Class<T> type)
+    {
+        final RDFEntity existing = entities.get(iri);
+        if (existing == null)
+            return null;
+        else if (type.isInstance(existing))
+            return type.cast(existing);
+        final Map<Class<?>, RDFEntity> others = conflicting.get(iri);
+        if (others != null)
+        {
+            for (RDFEntity other : others.values())
+            {
+                if (type.isInstance(other))
+                    return type.cast(other);
+            }
+        }
+        logConflict(existing, type);
+        return null;
+    }
+
+    private void logConflict(RDFEntity existing, Class<?> type)
+    {
+        log.warn("Entity {} has been created as {} which is not an instance of {}; creating another entity for the IRI"
+                + " (missing rdf:type in the source?)", existing.getIRI(), existing.getClass().getName(), type.getName());
+    }
+    
+    /**
+     * Adds an entity to the identity map and schedules it for loading. An entity of a more specific
+     * type replaces the previously created one in the map; the entities of the conflicting types
+     * are kept by their classes.
+     * @param entity the entity to register
+     */
+    private void register(RDFEntity entity)
+    {
+        if (scheduled.add(entity))
+        {
+            final IRI iri = entity.getIRI();
+            final RDFEntity existing = entities.get(iri);
+            if (existing == null || existing.getClass().isInstance(entity))
+            {
+                entities.put(iri, entity);
+                if (existing != null && existing != entity)
+                    addConflicting(existing);
+            }
+            else
+                addConflicting(entity);
+            queue.add(entity);
+        }
+    }
+
+    private void addConflicting(RDFEntity entity)
+    {
+        conflicting.computeIfAbsent(entity.getIRI(), k -> new HashMap<>(2)).putIfAbsent(entity.getClass(), entity);
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * ModelEntitySource.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+
+/**
+ * An entity source that reads the statements from a RDF4J {@link Model}.
+ */
+public class ModelEntitySource implements EntitySource
+{
+    private Model model;
+    
+    
+    /**
+     * Creates a source backed by a model.
+     * @param model The source model
+     */
+    public ModelEntitySource(Model model)
+    {
+        this.model = model;
+    }
+
+    /**
+     * Gets the source model.
+     * @return The source model
+     */
+    public Model getModel()
+    {
+        return model;
+    }
+    
+    @Override
+    public void forEachStatement(Resource subject, BiConsumer<IRI, Value> consumer)
+    {
+        for (Statement st : model.filter(subject, null, null))
+            consumer.accept(st.getPredicate(), st.getObject());
+    }
+
+    @Override
+    public void forEachInstance(IRI classIRI, Consumer<IRI> consumer)
+    {
+        for (Statement st : model.filter(null, RDF.TYPE, classIRI))
+        {
+            if (st.getSubject() instanceof IRI)
+                consumer.accept((IRI) st.getSubject());
+        }
+    }
+
+    @Override
+    public void forEachType(Resource subject, Consumer<IRI> consumer)
+    {
+        for (Statement st : model.filter(subject, RDF.TYPE, null))
+        {
+            if (st.getObject() instanceof IRI)
+                consumer.accept((IRI) st.getObject());
+        }
+    }
+
+}
@@ -7,9 +7,13 @@ package io.github.radkovo.rdf4j.builder;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
@@ -22,6 +26,7 @@ import org.eclipse.rdf4j.model.util.Models;
 import org.eclipse.rdf4j.model.vocabulary.RDF;
 import org.eclipse.rdf4j.model.vocabulary.RDFS;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
 
 /**
  * A base class for all the generated RDF entities. It implements basic operations for
@@ -35,6 +40,12 @@ abstract public class RDFEntity
     public static final ValueFactory vf = SimpleValueFactory.getInstance();
     
     private IRI iri;
+    /** The context used for resolving the lazily loaded properties */
+    private LoadContext loadContext;
+    /** The properties changed since the entity was loaded or stored */
+    private Set<IRI> dirtyProperties;
+    /** Has the entity been loaded or stored? */
+    private boolean persistent;
 
     
     /**
@@ -81,6 +92,58 @@ abstract public class RDFEntity
         return true;
     }
     
+    //=====================================================================================
+    
+    /**
+     * Records a change of a property value. It is called by the generated setters and by the
+     * collections of the property values (see {@link TrackedSet}) when they are modified.
+     * @param property The IRI of the changed property
+     */
+    public void markDirty(IRI property)
+    {
+        if (dirtyProperties == null)
+            dirtyProperties = new HashSet<>();
+        dirtyProperties.add(property);
+    }
+    
+    /**
+     * Marks the entity as corresponding to its stored state. It is called when the entity
+     * has been loaded or when its changes have been computed by a {@link DeltaTargetModel}.
+     */
+    public void markClean()
+    {
+        persistent = true;
+        dirtyProperties = null;
+    }
+    
+    /**
+     * Checks whether the entity has been loaded or stored. The new entities are considered
+     * to be dirty as a whole.
+     * @return {@code true} when the entity has been loaded or stored
+     */
+    public boolean isPersistent()
+    {
+        return persistent;
+    }
+    
+    /**
+     * Checks whether the entity has changed since it was loaded or stored.
+     * @return {@code true} for new entities and for the entities with changed properties
+     */
+    public boolean isDirty()
+    {
+        return !persistent || (dirtyProperties != null && !dirtyProperties.isEmpty());
+    }
+    
+    /**
+     * Gets the properties changed since the entity was loaded or stored.
+     * @return The set of property IRIs
+     */
+    public Set<IRI> getDirtyProperties()
+    {
+        return (dirtyProperties == null) ? Collections.emptySet() : Collections.unmodifiableSet(dirtyProperties);
+    }
+    
     //=====================================================================================
 
     /**
@@ -90,22 +153,137 @@ abstract public class RDFEntity
     public void addToModel(TargetModel target)
     {
         // rdf:type
-        target.getModel().add(getIRI(), RDF.TYPE, getClassIRI());
+        target.addStatement(getIRI(), RDF.TYPE, getClassIRI());
         // rdfs:label
         if (getLabel() != null)
-            target.getModel().add(getIRI(), RDFS.LABEL, vf.createLiteral(getLabel()));
+            target.addStatement(getIRI(), RDFS.LABEL, vf.createLiteral(getLabel()));
         // additional triples are added in generated subclasses
     }
     
     /**
-     * Loads the entity properties from a RDF4J model. For creating the referenced entities
-     * a given factory is used.
+     * Adds the entities referenced by this entity to a target model without creating the statements
+     * of this entity. It is used for reaching the changed entities through the unchanged ones
+     * (see {@link DeltaTargetModel}). The pending lazy references are not resolved. The property-specific
+     * code is generated in subclasses.
+     * @param target The target model
+     */
+    public void addReferences(TargetModel target)
+    {
+        // the references are added in generated subclasses
+    }
+    
+    /**
+     * Stores the changes of the entity and of all the referenced entities to a model. Only the
+     * statements of the changed properties are replaced; the unchanged properties are not touched.
+     * @param model The model to update
+     * @return The changes applied to the model
+     */
+    public ChangeSet syncToModel(Model model)
+    {
+        final DeltaTargetModel target = new DeltaTargetModel(model);
+        target.add(this);
+        final ChangeSet changes = target.getChanges();
+        changes.applyTo(model);
+        return changes;
+    }
+    
+    /**
+     * Loads the entity properties from a RDF4J model including all the referenced entities.
+     * For creating the referenced entities a given factory is used. Each referenced entity
+     * is created and loaded only once.
      * @param model The source model to load the properties from
      * @param factory An entity factory for creating referenced entities while loading
      */
     public void loadFromModel(Model model, EntityFactory factory)
     {
-        // retrieval is implemented in generated subclasses
+        factory.createLoadContext(model).load(this);
+    }
+    
+    /**
+     * Loads the entity properties from an entity source. The referenced entities are loaded
+     * as well unless their properties are lazily loaded; then, they are loaded from the source
+     * on first access.
+     * @param source The entity source to load the properties from
+     * @param factory An entity factory for creating referenced entities while loading
+     */
+    public void loadFrom(EntitySource source, EntityFactory factory)
+    {
+        factory.createLoadContext(source).load(this);
+    }
+    
+    /**
+     * Loads the entity properties from a repository including all the referenced entities.
+     * The statements are fetched using the queries provided by the factory, many entities
+     * per query.
+     * @param connection The repository connection
+     * @param factory An entity factory for creating referenced entities while loading
+     */
+    public void loadFromRepository(RepositoryConnection connection, EntityFactory factory)
+    {
+        loadFrom(new RepositoryEntitySource(connection, factory), factory);
+    }
+    
+    /**
+     * Loads the entity properties from a repository including the referenced entities up to the given
+     * depth. The entities referenced in a greater distance are created with their IRIs only; they
+     * are not persistent and a {@link DeltaTargetModel} does not remove their stored statements.
+     * @param connection The repository connection
+     * @param factory An entity factory for creating referenced entities while loading
+     * @param depth The maximal distance of the loaded entities from this entity (0 for this entity only)
+     */
+    public void loadFromRepository(RepositoryConnection connection, EntityFactory factory, int depth)
+    {
+        final RepositoryEntitySource source = new RepositoryEntitySource(connection, factory);
+        source.setDepth(depth);
+        loadFrom(source, factory);
+    }
+    
+    /**
+     * Loads the entity properties within a load context. The referenced entities are obtained
+     * from the context and loaded by the context later.
+     * The statements about the entity are read in a single pass and passed
+     * to {@link #loadStatement(IRI, Value, LoadContext)}; then {@link #loadFinished(LoadContext)} is called.
+     * When the statements are not available in the source, the entity is left unloaded.
+     * @param context The load context
+     */
+    protected void loadStatements(LoadContext context)
+    {
+        resetProperties();
+        if (!context.getSource().isAvailable(getIRI()))
+            return;
+        context.resetValueCounts();
+        context.getSource().forEachStatement(getIRI(), (pred, value) -> loadStatement(pred, value, context));
+        loadFinished(context);
+        markClean();
+    }
+    
+    /**
+     * Sets all the properties to the values that correspond to no statements in the source model.
+     * Called before the statements are loaded; the property-specific code is generated in subclasses.
+     */
+    protected void resetProperties()
+    {
+    }
+    
+    /**
+     * Loads a single statement about the entity. The dispatching on the predicate is generated
+     * in subclasses; the statements with unknown predicates are passed to the superclass.
+     * @param pred The statement predicate
+     * @param value The statement object
+     * @param context The load context used for obtaining the referenced entities
+     */
+    protected void loadStatement(IRI pred, Value value, LoadContext context)
+    {
+        // the statements are ignored by default
+    }
+    
+    /**
+     * Called when all the statements about the entity have been loaded. The generated subclasses
+     * trim the loaded array properties here.
+     * @param context The load context
+     */
+    protected void loadFinished(LoadContext context)
+    {
     }
     
     /**
@@ -123,96 +301,188 @@ abstract public class RDFEntity
      */
     abstract public IRI getClassIRI();
     
+    /**
+     * Binds the entity to the load context used for resolving its lazily loaded properties.
+     * @param context The load context
+     */
+    protected void setLoadContext(LoadContext context)
+    {
+        this.loadContext = context;
+    }
+    
+    /**
+     * Gets the load context used for resolving the lazily loaded properties.
+     * @return The load context or {@code null} when no properties are waiting for loading
+     */
+    protected LoadContext getLoadContext()
+    {
+        return loadContext;
+    }
+    
+    /**
+     * Resolves a lazily loaded reference. The referenced entity is obtained from the load context
+     * and loaded when necessary.
+     * @param iri The IRI of the referenced entity
+     * @param type The required entity type
+     * @param creator The function used for creating a new entity
+     * @return The referenced entity
+     */
+    protected <T extends RDFEntity> T resolveEntity(IRI iri, Class<T> type, Function<IRI, ? extends T> creator)
+    {
+        final T ret = loadContext.getEntity(iri, type, creator);
+        loadContext.processQueue();
+        return ret;
+    }
+    
     //=====================================================================================
     
     public void addValue(TargetModel target, IRI propertyIRI, String value)
     {
         if (value != null)
-            target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addValue(TargetModel target, IRI propertyIRI, int value)
     {
-        target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+        target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addValue(TargetModel target, IRI propertyIRI, long value)
     {
-        target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+        target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
+    }
+
+    public void addValue(TargetModel target, IRI propertyIRI, short value)
+    {
+        target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
+    }
+
+    public void addValue(TargetModel target, IRI propertyIRI, byte value)
+    {
+        target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addValue(TargetModel target, IRI propertyIRI, float value)
     {
-        target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+        target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addValue(TargetModel target, IRI propertyIRI, double value)
     {
-        target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+        target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addValue(TargetModel target, IRI propertyIRI, boolean value)
     {
-        target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+        target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addValue(TargetModel target, IRI propertyIRI, Date value)
     {
-        target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+        if (value != null)
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addValue(TargetModel target, IRI propertyIRI, URL value)
     {
-        target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value.toString()));
+        if (value != null)
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value.toString()));
     }
 
     public void addArray(TargetModel target, IRI propertyIRI, String[] values)
     {
+        if (values == null)
+            return;
         for (String value : values)
-            target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addArray(TargetModel target, IRI propertyIRI, int[] values)
     {
+        if (values == null)
+            return;
         for (int value : values)
-            target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
+    }
+
+    public void addArray(TargetModel target, IRI propertyIRI, long[] values)
+    {
+        if (values == null)
+            return;
+        for (long value : values)
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
+    }
+
+    public void addArray(TargetModel target, IRI propertyIRI, short[] values)
+    {
+        if (values == null)
+            return;
+        for (short value : values)
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
+    }
+
+    public void addArray(TargetModel target, IRI propertyIRI, byte[] values)
+    {
+        if (values == null)
+            return;
+        for (byte value : values)
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
+    }
+
+    public void addArray(TargetModel target, IRI propertyIRI, boolean[] values)
+    {
+        if (values == null)
+            return;
+        for (boolean value : values)
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addArray(TargetModel target, IRI propertyIRI, float[] values)
     {
+        if (values == null)
+            return;
         for (float value : values)
-            target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addArray(TargetModel target, IRI propertyIRI, double[] values)
     {
+        if (values == null)
+            return;
         for (double value : values)
-            target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addArray(TargetModel target, IRI propertyIRI, Date[] values)
     {
+        if (values == null)
+            return;
         for (Date value : values)
-            target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value));
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value));
     }
 
     public void addArray(TargetModel target, IRI propertyIRI, URL[] values)
     {
+        if (values == null)
+            return;
         for (URL value : values)
-            target.getModel().add(getIRI(), propertyIRI, vf.createLiteral(value.toString(), XMLSchema.ANYURI));
+            target.addStatement(getIRI(), propertyIRI, vf.createLiteral(value.toString(), XMLSchema.ANYURI));
     }
 
     public void addObject(TargetModel target, IRI propertyIRI, RDFEntity obj)
     {
-        target.getModel().add(getIRI(), propertyIRI, obj.getIRI());
-        target.add(obj);
+        if (obj != null)
+        {
+            target.addStatement(getIRI(), propertyIRI, obj.getIRI());
+            target.add(obj);
+        }
     }
 
     public void addCollection(TargetModel target, IRI propertyIRI, Collection<? extends RDFEntity> col)
     {
         for (RDFEntity entity : col)
         {
-            target.getModel().add(getIRI(), propertyIRI, entity.getIRI());
+            target.addStatement(getIRI(), propertyIRI, entity.getIRI());
             target.add(entity);
         }
     }
@@ -249,6 +519,66 @@ abstract public class RDFEntity
         return ret;
     }
 
+    protected long[] loadLongArray(Model m, IRI pred)
+    {
+        Model stm = m.filter(null, pred, null);
+        long[] ret = new long[stm.size()];
+        int i = 0;
+        for (Statement st : stm)
+        {
+            final Value val = st.getObject();
+            if (val instanceof Literal)
+                ret[i] = ((Literal) val).longValue();
+            i++;
+        }
+        return ret;
+    }
+
+    protected short[] loadShortArray(Model m, IRI pred)
+    {
+        Model stm = m.filter(null, pred, null);
+        short[] ret = new short[stm.size()];
+        int i = 0;
+        for (Statement st : stm)
+        {
+            final Value val = st.getObject();
+            if (val instanceof Literal)
+                ret[i] = ((Literal) val).shortValue();
+            i++;
+        }
+        return ret;
+    }
+
+    protected byte[] loadByteArray(Model m, IRI pred)
+    {
+        Model stm = m.filter(null, pred, null);
+        byte[] ret = new byte[stm.size()];
+        int i = 0;
+        for (Statement st : stm)
+        {
+            final Value val = st.getObject();
+            if (val instanceof Literal)
+                ret[i] = ((Literal) val).byteValue();
+            i++;
+        }
+        return ret;
+    }
+
+    protected boolean[] loadBooleanArray(Model m, IRI pred)
+    {
+        Model stm = m.filter(null, pred, null);
+        boolean[] ret = new boolean[stm.size()];
+        int i = 0;
+        for (Statement st : stm)
+        {
+            final Value val = st.getObject();
+            if (val instanceof Literal)
+                ret[i] = ((Literal) val).booleanValue();
+            i++;
+        }
+        return ret;
+    }
+
     protected float[] loadFloatArray(Model m, IRI pred)
     {
         Model stm = m.filter(null, pred, null);
@@ -316,45 +646,264 @@ abstract public class RDFEntity
         return ret;
     }
 
+    /**
+     * Finds the first literal value of a property. The search stops at the first literal found;
+     * a filtered view of the model and its iterator are still created for every call.
+     * @param m the model to search
+     * @param pred the property IRI
+     * @return the first literal or {@code null} when there is no literal value
+     */
+    protected Literal firstLiteral(Model m, IRI pred)
+    {
+        for (Statement st : m.filter(null, pred, null))
+        {
+            if (st.getObject() instanceof Literal)
+                return (Literal) st.getObject();
+        }
+        return null;
+    }
+
     protected String loadStringValue(Model m, IRI pred)
     {
-        String[] vals = loadStringArray(m, pred);
-        return vals.length == 0 ? null : vals[0];
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? null : asString(val);
     }
-    
+
     protected int loadIntValue(Model m, IRI pred)
     {
-        int[] vals = loadIntArray(m, pred);
-        return vals.length == 0 ? 0 : vals[0];
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? 0 : asInt(val);
+    }
+
+    protected long loadLongValue(Model m, IRI pred)
+    {
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? 0 : asLong(val);
+    }
+
+    protected short loadShortValue(Model m, IRI pred)
+    {
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? 0 : asShort(val);
+    }
+
+    protected byte loadByteValue(Model m, IRI pred)
+    {
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? 0 : asByte(val);
+    }
+
+    protected boolean loadBooleanValue(Model m, IRI pred)
+    {
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? false : asBoolean(val);
     }
 
     protected float loadFloatValue(Model m, IRI pred)
     {
-        float[] vals = loadFloatArray(m, pred);
-        return vals.length == 0 ? 0 : vals[0];
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? 0 : asFloat(val);
     }
 
     protected double loadDoubleValue(Model m, IRI pred)
     {
-        double[] vals = loadDoubleArray(m, pred);
-        return vals.length == 0 ? 0 : vals[0];
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? 0 : asDouble(val);
     }
 
     protected Date loadDateValue(Model m, IRI pred)
     {
-        Date[] vals = loadDateArray(m, pred);
-        return vals.length == 0 ? null : vals[0];
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? null : asDate(val);
     }
-    
+
     protected URL loadURLValue(Model m, IRI pred)
     {
-        URL[] vals = loadURLArray(m, pred);
-        return vals.length == 0 ? null : vals[0];
+        final Literal val = firstLiteral(m, pred);
+        return val == null ? null : asURL(val);
     }
-    
+
     protected Set<IRI> getObjectIRIs(Model m, IRI predicate)
     {
         return Models.objectIRIs(m.filter(null, predicate, null));
     }
 
+    //=====================================================================================
+    // single value conversions used by the generated loaders
+
+    protected static String asString(Value val)
+    {
+        return (val instanceof Literal) ? val.stringValue() : null;
+    }
+
+    protected static int asInt(Value val)
+    {
+        return (val instanceof Literal) ? ((Literal) val).intValue() : 0;
+    }
+
+    protected static long asLong(Value val)
+    {
+        return (val instanceof Literal) ? ((Literal) val).longValue() : 0;
+    }
+
+    protected static short asShort(Value val)
+    {
+        return (val instanceof Literal) ? ((Literal) val).shortValue() : 0;
+    }
+
+    protected static byte asByte(Value val)
+    {
+        return (val instanceof Literal) ? ((Literal) val).byteValue() : 0;
+    }
+
+    protected static boolean asBoolean(Value val)
+    {
+        return (val instanceof Literal) ? ((Literal) val).booleanValue() : false;
+    }
+
+    protected static float asFloat(Value val)
+    {
+        return (val instanceof Literal) ? ((Literal) val).floatValue() : 0;
+    }
+
+    protected static double asDouble(Value val)
+    {
+        return (val instanceof Literal) ? ((Literal) val).doubleValue() : 0;
+    }
+
+    protected static Date asDate(Value val)
+    {
+        return (val instanceof Literal) ? ((Literal) val).calendarValue().toGregorianCalendar().getTime() : null;
+    }
+
+    protected static URL asURL(Value val)
+    {
+        if (val instanceof Literal)
+        {
+            try
+            {
+                return new URL(val.stringValue());
+            } catch (MalformedURLException e) {
+                //ignored
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores a loaded value to an array property. The array capacity is doubled when the array is full
+     * so that the values are appended in amortized constant time; the array is trimmed by
+     * {@link #trimArray(Object[], int)} when all the statements have been loaded.
+     * @param array The array containing the values loaded so far
+     * @param index The index of the new value (see {@link LoadContext#nextValueIndex(IRI)})
+     * @param value The value to store
+     * @return The array containing the new value
+     */
+    protected static <T> T[] appendValue(T[] array, int index, T value)
+    {
+        final T[] ret = (index < array.length) ? array : Arrays.copyOf(array, grow(index));
+        ret[index] = value;
+        return ret;
+    }
+
+    protected static int[] appendValue(int[] array, int index, int value)
+    {
+        final int[] ret = (index < array.length) ? array : Arrays.copyOf(array, grow(index));
+        ret[index] = value;
+        return ret;
+    }
+
+    protected static long[] appendValue(long[] array, int index, long value)
+    {
+        final long[] ret = (index < array.length) ? array : Arrays.copyOf(array, grow(index));
+        ret[index] = value;
+        return ret;
+    }
+
+    protected static short[] appendValue(short[] array, int index, short value)
+    {
+        final short[] ret = (index < array.length) ? array : Arrays.copyOf(array, grow(index));
+        ret[index] = value;
+        return ret;
+    }
+
+    protected static byte[] appendValue(byte[] array, int index, byte value)
+    {
+        final byte[] ret = (index < array.length) ? array : Arrays.copyOf(array, grow(index));
+        ret[index] = value;
+        return ret;
+    }
+
+    protected static boolean[] appendValue(boolean[] array, int index, boolean value)
+    {
+        final boolean[] ret = (index < array.length) ? array : Arrays.copyOf(array, grow(index));
+        ret[index] = value;
+        return ret;
+    }
+
+    protected static float[] appendValue(float[] array, int index, float value)
+    {
+        final float[] ret = (index < array.length) ? array : Arrays.copyOf(array, grow(index));
+        ret[index] = value;
+        return ret;
+    }
+
+    protected static double[] appendValue(double[] array, int index, double value)
+    {
+        final double[] ret = (index < array.length) ? array : Arrays.copyOf(array, grow(index));
+        ret[index] = value;
+        return ret;
+    }
+
+    /**
+     * Trims a loaded array property to the number of the loaded values.
+     * @param array The array filled by {@link #appendValue(Object[], int, Object)}
+     * @param count The number of the values (see {@link LoadContext#getValueCount(IRI)})
+     * @return The array of the given length
+     */
+    protected static <T> T[] trimArray(T[] array, int count)
+    {
+        return (array.length == count) ? array : Arrays.copyOf(array, count);
+    }
+
+    protected static int[] trimArray(int[] array, int count)
+    {
+        return (array.length == count) ? array : Arrays.copyOf(array, count);
+    }
+
+    protected static long[] trimArray(long[] array, int count)
+    {
+        return (array.length == count) ? array : Arrays.copyOf(array, count);
+    }
+
+    protected static short[] trimArray(short[] array, int count)
+    {
+        return (array.length == count) ? array : Arrays.copyOf(array, count);
+    }
+
+    protected static byte[] trimArray(byte[] array, int count)
+    {
+        return (array.length == count) ? array : Arrays.copyOf(array, count);
+    }
+
+    protected static boolean[] trimArray(boolean[] array, int count)
+    {
+        return (array.length == count) ? array : Arrays.copyOf(array, count);
+    }
+
+    protected static float[] trimArray(float[] array, int count)
+    {
+        return (array.length == count) ? array : Arrays.copyOf(array, count);
+    }
+
+    protected static double[] trimArray(double[] array, int count)
+    {
+        return (array.length == count) ? array : Arrays.copyOf(array, count);
+    }
+
+    private static int grow(int length)
+    {
+        return Math.max(4, length * 2);
+    }
+
 }
@@ -0,0 +1,339 @@
+/**
+ * RepositoryEntitySource.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+import org.eclipse.rdf4j.query.GraphQuery;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.GraphQueryResult;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryResult;
+import org.eclipse.rdf4j.rio.ntriples.NTriplesUtil;
+
+/**
+ * An entity source that fetches the statements from a RDF4J repository. The entities are fetched
+ * level by level while loading a graph of entities. For each level, the entities are grouped
+ * by their classes and fetched using the CONSTRUCT queries provided by the factory
+ * (see {@link EntityFactory#getConstructQuery(IRI)}); many entities are fetched by a single query
+ * by binding their IRIs in a {@code VALUES} clause. The entities of unknown classes are fetched
+ * including all their statements. The types of the entities referenced by the fetched statements
+ * are fetched at once as well so that the referenced entities may be created for their most specific
+ * classes.
+ * <p>
+ * The fetched statements are kept in the source until {@link #clear()} is called. The entities
+ * referenced in a distance greater than the configured depth are not fetched and they remain
+ * in their initial state with the IRI only. The source is not thread-safe.
+ */
+public class RepositoryEntitySource implements EntitySource
+{
+    /** The default number of entities fetched by a single query */
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    /** The query used for the entities whose class is not known to the factory */
+    private static final String DEFAULT_QUERY = "CONSTRUCT { ?s ?p ?o } WHERE { ?s ?p ?o }";
+    /** The query used for fetching the types of the referenced entities */
+    private static final String TYPE_QUERY = "SELECT ?s ?t WHERE { ?s a ?t }";
+
+    private final RepositoryConnection connection;
+    private final EntityFactory factory;
+    private int batchSize;
+    private int depth;
+    /** Subject -> interleaved predicates and objects of the fetched statements */
+    private final Map<Resource, List<Value>> statements;
+    /** The subjects beyond the depth that have not been fetched */
+    private final Set<Resource> skipped;
+    /** Subject -> the fetched types */
+    private final Map<Resource, List<IRI>> types;
+    private long queryCount;
+
+
+    /**
+     * Creates a new source with the default batch size and unlimited depth.
+     * @param connection The repository connection
+     * @param factory The factory that provides the queries for the entity classes
+     */
+    public RepositoryEntitySource(RepositoryConnection connection, EntityFactory factory)
+    {
+        this.connection = connection;
+        this.factory = factory;
+        batchSize = DEFAULT_BATCH_SIZE;
+        depth = Integer.MAX_VALUE;
+        statements = new HashMap<>();
+        skipped = new HashSet<>();
+        types = new HashMap<>();
+    }
+
+    /**
+     * Gets the repository connection used for fetching the statements.
+     * @return The repository connection
+     */
+    public RepositoryConnection getConnection()
+    {
+        return connection;
+    }
+
+    /**
+     * Gets the maximal number of entities fetched by a single query.
+     * @return The batch size
+     */
+    public int getBatchSize()
+    {
+        return batchSize;
+    }
+
+    /**
+     * Sets the maximal number of entities fetched by a single query.
+     * @param batchSize The batch size
+     */
+    public void setBatchSize(int batchSize)
+    {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the maximal distance of the fetched entities from the entities whose loading was requested.
+     * @return The depth
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Sets the maximal distance of the fetched entities from the entities whose loading was requested.
+     * 0 means that the requested entities are fetched only; the referenced entities are created
+     * with their IRIs only and they are left unloaded (see {@link #isAvailable(Resource)}).
+     * The depth is not limited by default.
+     * @param depth The depth
+     */
+    public void setDepth(int depth)
+    {
+        this.depth = depth;
+    }
+
+    /**
+     * Gets the number of the queries executed so far.
+     * @return The number of queries
+     */
+    public long getQueryCount()
+    {
+        return queryCount;
+    }
+
+    /**
+     * Discards all the fetched statements.
+     */
+    public void clear()
+    {
+        statements.clear();
+        skipped.clear();
+        types.clear();
+    }
+
+    @Override
+    public void prefetch(Collection<? extends RDFEntity> entities, int level)
+    {
+        //group the entities to fetch by their queries
+        final Map<String, List<IRI>> pending = new LinkedHashMap<>();
+        for (RDFEntity entity : entities)
+        {
+            final IRI iri = entity.getIRI();
+            if (!statements.containsKey(iri))
+            {
+                if (level > depth)
+                    skipped.add(iri);
+                else
+                {
+                    skipped.remove(iri);
+                    statements.put(iri, new ArrayList<>());
+                    String query = factory.getConstructQuery(entity.getClassIRI());
+                    if (query == null)
+                        query = DEFAULT_QUERY;
+                    pending.computeIfAbsent(query, q -> new ArrayList<>()).add(iri);
+                }
+            }
+        }
+        //fetch the entities in batches
+        final Set<IRI> referenced = new LinkedHashSet<>();
+        for (Map.Entry<String, List<IRI>> entry : pending.entrySet())
+        {
+            final List<IRI> iris = entry.getValue();
+            for (int i = 0; i < iris.size(); i += batchSize)
+                fetch(entry.getKey(), iris.subList(i, Math.min(i + batchSize, iris.size())), referenced);
+        }
+        fetchTypes(referenced);
+    }
+
+    @Override
+    public boolean isAvailable(Resource subject)
+    {
+        return !skipped.contains(subject);
+    }
+
+    @Override
+    public void forEachStatement(Resource subject, BiConsumer<IRI, Value> consumer)
+    {
+        if (skipped.contains(subject))
+            return;
+        List<Value> data = statements.get(subject);
+        if (data == null) //not prefetched, read all the statements
+        {
+            data = new ArrayList<>();
+            final Set<IRI> referenced = new LinkedHashSet<>();
+            try (RepositoryResult<Statement> result = connection.getStatements(subject, null, null, false))
+            {
+                while (result.hasNext())
+                {
+                    final Statement st = result.next();
+                    data.add(st.getPredicate());
+                    data.add(st.getObject());
+                    addReference(st, referenced);
+                }
+            }
+            queryCount++;
+            statements.put(subject, data);
+            fetchTypes(referenced);
+        }
+        for (int i = 0; i < data.size(); i += 2)
+            consumer.accept((IRI) data.get(i), data.get(i + 1));
+    }
+
+    @Override
+    public void forEachInstance(IRI classIRI, Consumer<IRI> consumer)
+    {
+        try (RepositoryResult<Statement> result = connection.getStatements(null, RDF.TYPE, classIRI, false))
+        {
+            while (result.hasNext())
+            {
+                final Resource subject = result.next().getSubject();
+                if (subject instanceof IRI)
+                    consumer.accept((IRI) subject);
+            }
+        }
+        queryCount++;
+    }
+
+    @Override
+    public void forEachType(Resource subject, Consumer<IRI> consumer)
+    {
+        List<IRI> list = types.get(subject);
+        if (list == null) //not referenced by the fetched statements
+        {
+            list = new ArrayList<>();
+            try (RepositoryResult<Statement> result = connection.getStatements(subject, RDF.TYPE, null, false))
+            {
+                while (result.hasNext())
+                {
+                    final Value type = result.next().getObject();
+                    if (type instanceof IRI)
+                        list.add((IRI) type);
+                }
+            }
+            queryCount++;
+            types.put(subject, list);
+        }
+        list.forEach(consumer);
+    }
+
+    //=====================================================================================
+
+    /**
+     * Fetches the statements of the given subjects using a query.
+     * @param query the CONSTRUCT query with the {@code ?s} variable unbound
+     * @param subjects the subjects to bind to {@code ?s}
+     * @param referenced the set to add the IRIs of the referenced entities to
+     */
+    private void fetch(String query, List<IRI> subjects, Set<IRI> referenced)
+    {
+        final GraphQuery q = connection.prepareGraphQuery(QueryLanguage.SPARQL, appendValues(query, subjects));
+        q.setIncludeInferred(false);
+        try (GraphQueryResult result = q.evaluate())
+        {
+            while (result.hasNext())
+            {
+                final Statement st = result.next();
+                final List<Value> data = statements.get(st.getSubject());
+                if (data != null)
+                {
+                    data.add(st.getPredicate());
+                    data.add(st.getObject());
+                    addReference(st, referenced);
+                }
+            }
+        }
+        queryCount++;
+    }
+
+    /**
+     * Adds the object of a statement to the referenced entities when its types have not been fetched yet.
+     */
+    private void addReference(Statement st, Set<IRI> referenced)
+    {
+        if (st.getObject() instanceof IRI && !RDF.TYPE.equals(st.getPredicate()) && !types.containsKey(st.getObject()))
+            referenced.add((IRI) st.getObject());
+    }
+
+    /**
+     * Fetches the types of the given resources in batches.
+     */
+    private void fetchTypes(Set<IRI> resources)
+    {
+        if (resources.isEmpty())
+            return;
+        final List<IRI> list = new ArrayList<>(resources);
+        for (IRI iri : list)
+            types.put(iri, new ArrayList<>(1));
+        for (int i = 0; i < list.size(); i += batchSize)
+        {
+            final TupleQuery q = connection.prepareTupleQuery(QueryLanguage.SPARQL,
+                    appendValues(TYPE_QUERY, list.subList(i, Math.min(i + batchSize, list.size()))));
+            q.setIncludeInferred(false);
+            try (TupleQueryResult result = q.evaluate())
+            {
+                while (result.hasNext())
+                {
+                    final BindingSet bindings = result.next();
+                    final Value type = bindings.getValue("t");
+                    if (type instanceof IRI)
+                        types.get(bindings.getValue("s")).add((IRI) type);
+                }
+            }
+            queryCount++;
+        }
+    }
+
+    /**
+     * Binds the {@code ?s} variable of a query to the given subjects using a {@code VALUES} clause.
+     */
+    private static String appendValues(String query, List<IRI> subjects)
+    {
+        final StringBuilder sb = new StringBuilder(query).append(" VALUES ?s {");
+        for (IRI iri : subjects)
+            sb.append(' ').append(NTriplesUtil.toNTriplesString(iri));
+        sb.append(" }");
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,258 @@
+/**
+ * RepositoryTargetModel.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+
+/**
+ * A target that stores the statements to a RDF4J repository. The statements are buffered
+ * and written to the repository in batches; every batch is written in a separate transaction.
+ * The batches are written between the entities so that the statements of an entity are never
+ * split; a batch may therefore exceed the batch size by the statements of a single entity.
+ * <p>
+ * Optionally, the batches may be committed by a background thread while the next batch is being
+ * created. Then, the connection is used by the background thread only and it must not be used
+ * by the caller until the target is closed. At most one batch is being committed at a time
+ * so that at most two batches are kept in memory.
+ * <p>
+ * The target must be closed (or flushed) when all the entities have been added in order to write
+ * the remaining statements. Closing the target does not close the connection.
+ * <p>
+ * When a batch cannot be committed, the exception is passed to the caller and the statements
+ * of the batch are kept in the buffer so that they may be written by another {@link #flush()}.
+ * The entities waiting for adding are kept as well and they are added by the next
+ * {@link #add(RDFEntity)}.
+ */
+public class RepositoryTargetModel extends TargetModel implements AutoCloseable
+{
+    /** The default number of statements in a batch */
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+
+    private static final ValueFactory vf = SimpleValueFactory.getInstance();
+
+    private final RepositoryConnection connection;
+    private final int batchSize;
+    private final Resource[] contexts;
+    private List<Statement> buffer;
+    private ExecutorService executor;
+    /** The batch being committed in background */
+    private Future<?> running;
+    /** The statements of the batch being committed in background */
+    private List<Statement> runningBatch;
+    private long committedCount;
+    /** Is an entity being stored? */
+    private boolean storing;
+
+
+    /**
+     * Creates a target that stores the statements synchronously in batches of the default size.
+     * @param connection The repository connection
+     * @param contexts The contexts to add the statements to (the default context when not specified)
+     */
+    public RepositoryTargetModel(RepositoryConnection connection, Resource... contexts)
+    {
+        this(connection, DEFAULT_BATCH_SIZE, false, contexts);
+    }
+
+    /**
+     * Creates a target that stores the statements to a repository.
+     * @param connection The repository connection
+     * @param batchSize The number of statements written in a single transaction
+     * @param background Commit the batches in a background thread?
+     * @param contexts The contexts to add the statements to (the default context when not specified)
+     */
+    public RepositoryTargetModel(RepositoryConnection connection, int batchSize, boolean background, Resource... contexts)
+    {
+        super();
+        if (batchSize < 1)
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        this.connection = connection;
+        this.batchSize = batchSize;
+        this.contexts = contexts;
+        buffer = new ArrayList<>(batchSize);
+        if (background)
+        {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                final Thread t = new Thread(r, "repository-target");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Returns the repository connection used for storing the statements.
+     * @return The repository connection
+     */
+    public RepositoryConnection getConnection()
+    {
+        return connection;
+    }
+
+    /**
+     * Gets the number of statements written to the repository so far.
+     * @return The number of committed statements
+     * @throws RepositoryException when a background commit has failed
+     */
+    public long getCommittedCount() throws RepositoryException
+    {
+        await();
+        return committedCount;
+    }
+
+    @Override
+    public void addStatement(Resource subject, IRI predicate, Value object)
+    {
+        buffer.add(vf.createStatement(subject, predicate, object));
+        if (!storing && buffer.size() >= batchSize) //not emitted by an entity
+            writeBuffer();
+    }
+
+    @Override
+    protected void store(RDFEntity entity)
+    {
+        storing = true;
+        try
+        {
+            super.store(entity);
+        }
+        finally
+        {
+            storing = false;
+        }
+    }
+
+    @Override
+    protected void entityStored(RDFEntity entity)
+    {
+        if (buffer.size() >= batchSize)
+            writeBuffer();
+    }
+
+    /**
+     * Writes all the buffered statements to the repository and waits for their commit.
+     * @throws RepositoryException
+     */
+    public void flush() throws RepositoryException
+    {
+        writeBuffer();
+        await();
+    }
+
+    /**
+     * Writes all the buffered statements to the repository and stops the background thread.
+     * @throws RepositoryException
+     */
+    @Override
+    public void close() throws RepositoryException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            if (executor != null)
+            {
+                executor.shutdown();
+                executor = null;
+            }
+        }
+    }
+
+    //=====================================================================================
+
+    private void writeBuffer()
+    {
+        if (buffer.isEmpty())
+            return;
+        if (executor != null)
+        {
+            await(); //a single batch is committed at a time
+            final List<Statement> batch = buffer;
+            buffer = new ArrayList<>(batchSize);
+            runningBatch = batch;
+            running = executor.submit(() -> commit(batch));
+        }
+        else
+        {
+            commit(buffer);
+            buffer = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void commit(List<Statement> batch)
+    {
+        connection.begin();
+        try
+        {
+            connection.add(batch, contexts);
+            connection.commit();
+            committedCount += batch.size();
+        }
+        catch (RuntimeException e)
+        {
+            if (connection.isActive())
+                connection.rollback();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the background commit to finish. When the commit fails or the waiting
+     * is interrupted, the statements of the batch are returned to the buffer. After an interrupt,
+     * the batch may be committed twice, which does not change the repository contents.
+     */
+    private void await()
+    {
+        if (running != null)
+        {
+            final Future<?> task = running;
+            final List<Statement> batch = runningBatch;
+            running = null;
+            runningBatch = null;
+            try
+            {
+                task.get();
+            }
+            catch (ExecutionException e)
+            {
+                restore(batch);
+                if (e.getCause() instanceof RepositoryException)
+                    throw (RepositoryException) e.getCause();
+                throw new RepositoryException(e.getCause());
+            }
+            catch (InterruptedException e)
+            {
+                restore(batch);
+                Thread.currentThread().interrupt();
+                throw new RepositoryException("Interrupted while waiting for the commit", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the statements of a batch that has not been committed to the front of the buffer.
+     */
+    private void restore(List<Statement> batch)
+    {
+        batch.addAll(buffer);
+        buffer = batch;
+    }
+
+}
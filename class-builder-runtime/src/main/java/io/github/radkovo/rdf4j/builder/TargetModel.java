@@ -5,24 +5,55 @@
  */
 package io.github.radkovo.rdf4j.builder;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An abstraction of a target model. It encapsulates a RDF4J {@link Model} and
  * implements adding the entities to the model. While adding the entities,
- * duplicities are checked and duplicate additions of an equal entity are
- * ignored.
+ * duplicities are checked and duplicate additions of an entity of the same class
+ * with the same IRI are ignored. An entity of a different class with the IRI of an already
+ * added entity is added as well and a warning is logged. The added entities are retained
+ * (see {@link #getEntities()}); for adding large graphs, the retaining may be disabled
+ * so that only the IRIs and the classes of the added entities are kept.
+ * <p>
+ * The entities referenced from the added entities are not added recursively; they are
+ * put to a work queue that is processed iteratively so that arbitrarily long chains
+ * of entities may be added. When storing an entity fails, the entity and the entities
+ * waiting in the queue are kept and their storing is resumed by the next {@link #add(RDFEntity)}.
+ * <p>
+ * The entities emit their statements using {@link #addStatement(Resource, IRI, Value)}.
+ * Subclasses may override it for sending the statements elsewhere than to a model
+ * (see {@link HandlerTargetModel}). The recorded changes of the stored entities are kept;
+ * for storing the changed properties only and marking the entities clean, see {@link DeltaTargetModel}.
  * 
  * @author burgetr
  */
 public class TargetModel
 {
+    private static final Logger log = LoggerFactory.getLogger(TargetModel.class);
+    
     private Model model;
+    /** IRIs of the entities already added -> their classes */
+    private IRIMap<Class<?>> added;
+    /** Entities added with the IRI of an already added entity of another class */
+    private Set<RDFEntity> conflicting;
+    /** The added entities when retained */
     private Set<RDFEntity> entities;
+    /** Entities waiting for adding their statements */
+    private ArrayDeque<RDFEntity> pending;
+    /** Is the pending queue being processed? */
+    private boolean processing;
     
     
     /**
@@ -32,12 +63,24 @@ public class TargetModel
     public TargetModel(Model model)
     {
         this.model = model;
-        entities = new HashSet<>();
+        added = new IRIMap<>();
+        conflicting = new HashSet<>();
+        entities = Collections.synchronizedSet(new HashSet<>()); //shared by the concurrent targets
+        pending = new ArrayDeque<>();
+    }
+
+    /**
+     * Creates a target with no model. Used by the subclasses that do not store the statements
+     * in a model.
+     */
+    protected TargetModel()
+    {
+        this(null);
     }
 
     /**
      * Returns the RDF4J model used for storage.
-     * @return The RDF4J model
+     * @return The RDF4J model or {@code null} when the statements are not stored in a model
      */
     public Model getModel()
     {
@@ -47,23 +90,83 @@ public class TargetModel
     /**
      * Gets all the entities that have been already stored.
      * @return A set of stored RDF4J entities.
+     * @throws IllegalStateException when retaining the entities has been disabled
+     * (see {@link #setRetainEntities(boolean)})
      */
     public Set<RDFEntity> getEntities()
     {
-        return entities;
+        final Set<RDFEntity> ret = entities;
+        if (ret == null)
+            throw new IllegalStateException("The entities are not retained by this target");
+        return ret;
+    }
+    
+    /**
+     * Checks whether the stored entities are retained by the target.
+     * @return {@code true} when the entities are retained
+     */
+    public boolean isRetainEntities()
+    {
+        return entities != null;
     }
     
     /**
-     * Adds a new entity to the model. If the entity has been already stored,
-     * the addition has no efect.
+     * Enables or disables retaining the stored entities (see {@link #getEntities()}). When disabled,
+     * only the IRIs and the classes of the entities are kept so that the entities may be garbage
+     * collected while adding large graphs. It should be set before adding the entities.
+     * Default is {@code true}.
+     * @param retain {@code true} for retaining the stored entities
+     */
+    public void setRetainEntities(boolean retain)
+    {
+        if (!retain)
+            entities = null;
+        else if (entities == null)
+            entities = Collections.synchronizedSet(new HashSet<>()); //shared by the concurrent targets
+    }
+    
+    /**
+     * Gets the number of the entities that have been already stored.
+     * @return The number of entities.
+     */
+    public int getAddedCount()
+    {
+        return added.size() + conflicting.size();
+    }
+    
+    /**
+     * Checks whether an entity with the given IRI has been already stored.
+     * @param iri The entity IRI
+     * @return {@code true} when the entity has been already stored
+     */
+    public boolean isAdded(IRI iri)
+    {
+        return added.containsKey(iri);
+    }
+    
+    /**
+     * Adds a single statement to the target.
+     * @param subject The statement subject
+     * @param predicate The statement predicate
+     * @param object The statement object
+     */
+    public void addStatement(Resource subject, IRI predicate, Value object)
+    {
+        model.add(subject, predicate, object);
+    }
+    
+    /**
+     * Adds a new entity to the model. If an entity of the same class with the same IRI has been
+     * already stored, the addition has no efect. When called while adding another entity (i.e. for
+     * a referenced entity), the entity is only scheduled for adding.
      * @param entity The entity to add.
      */
     public void add(RDFEntity entity)
     {
-        if (entities.add(entity))
-        {
-            entity.addToModel(this);
-        }
+        if (register(entity))
+            pending.add(entity);
+        if (!processing && !pending.isEmpty())
+            processPending();
     }
     
     /**
@@ -76,4 +179,94 @@ public class TargetModel
         for (RDFEntity e : entities)
             add(e);
     }
+    
+    /**
+     * Adds a collection of entities to the model using multiple threads when supported
+     * by the target. This target is not thread-safe and it adds the entities sequentially;
+     * see {@link ConcurrentTargetModel} for parallel adding.
+     * @param entities A collection of entities to add.
+     */
+    public void addAllParallel(Collection<? extends RDFEntity> entities)
+    {
+        addAll(entities);
+    }
+    
+    /**
+     * Records an entity being added and decides whether it should be stored.
+     * @param entity The entity being added
+     * @return {@code true} when the entity has not been added yet and it should be stored
+     */
+    protected boolean register(RDFEntity entity)
+    {
+        return accept(entity, added.putIfAbsent(entity.getIRI(), entity.getClass()), conflicting);
+    }
+    
+    /**
+     * Decides whether an entity should be stored according to the class of the entity previously
+     * added with the same IRI. An entity of a different class is accepted as well but only once
+     * and a warning is logged.
+     * @param entity The entity being added
+     * @param existing The class of the entity previously added with the same IRI or {@code null} when
+     * there was no such entity
+     * @param conflicting The set of the accepted entities that conflict with a previously added entity
+     * @return {@code true} when the entity should be stored
+     */
+    protected final boolean accept(RDFEntity entity, Class<?> existing, Set<RDFEntity> conflicting)
+    {
+        if (existing != null)
+        {
+            if (existing == entity.getClass() || !conflicting.add(entity))
+                return false; //already added
+            log.warn("Entity {} of {} has the IRI of an already added entity of {}; adding both",
+                    entity.getIRI(), entity.getClass().getName(), existing.getName());
+        }
+        final Set<RDFEntity> retained = entities;
+        if (retained != null)
+            retained.add(entity);
+        return true;
+    }
+    
+    /**
+     * Adds the statements of a single entity. The referenced entities are scheduled for adding
+     * by the entity.
+     * @param entity The entity to store
+     */
+    protected void store(RDFEntity entity)
+    {
+        entity.addToModel(this);
+    }
+    
+    /**
+     * Called when all the statements of an entity have been added and the entity has been removed
+     * from the queue. Subclasses may use it for writing the statements in batches that do not split
+     * the entities. The default implementation does nothing.
+     * @param entity The stored entity
+     */
+    protected void entityStored(RDFEntity entity)
+    {
+    }
+    
+    /**
+     * Adds the statements of all the pending entities including the entities discovered
+     * while adding them. An entity is removed from the queue when it has been stored; when
+     * the storing fails, the entity and the rest of the queue are kept for the next call.
+     */
+    private void processPending()
+    {
+        processing = true;
+        try
+        {
+            RDFEntity entity;
+            while ((entity = pending.peek()) != null)
+            {
+                store(entity);
+                pending.poll();
+                entityStored(entity);
+            }
+        }
+        finally
+        {
+            processing = false;
+        }
+    }
 }
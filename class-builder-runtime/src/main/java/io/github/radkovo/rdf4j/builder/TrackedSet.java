@@ -0,0 +1,123 @@
+/**
+ * TrackedSet.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * A set of the values of a collection property that records its changes. Any modification
+ * of the set (including the modifications using its iterator) marks the property of the owning
+ * entity dirty (see {@link RDFEntity#markDirty(IRI)}). The values added while loading the entity
+ * are not recorded as changes.
+ *
+ * @param <E> the type of the values
+ */
+public class TrackedSet<E> extends AbstractSet<E>
+{
+    private final RDFEntity owner;
+    private final IRI property;
+    private final Set<E> values;
+
+
+    /**
+     * Creates an empty set.
+     * @param owner the entity that owns the property
+     * @param property the IRI of the property
+     */
+    public TrackedSet(RDFEntity owner, IRI property)
+    {
+        this.owner = owner;
+        this.property = property;
+        values = new HashSet<>();
+    }
+
+    /**
+     * Adds a loaded value without recording a change.
+     * @param value the value to add
+     * @return {@code true} when the set did not contain the value
+     */
+    public boolean addLoaded(E value)
+    {
+        return values.add(value);
+    }
+
+    @Override
+    public int size()
+    {
+        return values.size();
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return values.contains(o);
+    }
+
+    @Override
+    public boolean add(E value)
+    {
+        if (values.add(value))
+        {
+            owner.markDirty(property);
+            return true;
+        }
+        else
+            return false;
+    }
+
+    @Override
+    public boolean remove(Object o)
+    {
+        if (values.remove(o))
+        {
+            owner.markDirty(property);
+            return true;
+        }
+        else
+            return false;
+    }
+
+    @Override
+    public void clear()
+    {
+        if (!values.isEmpty())
+        {
+            values.clear();
+            owner.markDirty(property);
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        final Iterator<E> it = values.iterator();
+        return new Iterator<E>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next()
+            {
+                return it.next();
+            }
+
+            @Override
+            public void remove()
+            {
+                it.remove();
+                owner.markDirty(property);
+            }
+        };
+    }
+
+}
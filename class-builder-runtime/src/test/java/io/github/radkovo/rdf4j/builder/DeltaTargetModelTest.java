@@ -0,0 +1,160 @@
+/**
+ * DeltaTargetModelTest.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.Iterator;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+import junit.framework.TestCase;
+
+/**
+ * Synchronizes the changes of loaded entities using {@link DeltaTargetModel}.
+ */
+public class DeltaTargetModelTest extends TestCase
+{
+    private static final int SIZE = 50;
+
+
+    public void testSyncToModel()
+    {
+        final Model model = ExampleData.toModel(ExampleData.createChain(SIZE, true));
+        final ExampleFactory factory = new ExampleFactory();
+        final Document doc = factory.createDocument(EX.data("d0"));
+        doc.loadFromModel(model, factory);
+        assertFalse(doc.isDirty());
+
+        doc.setTitle("changed");
+        doc.getNext().getAuthor().getKnows().clear();
+        final ChangeSet changes = doc.syncToModel(model);
+        assertEquals(3, changes.getRemoved().size()); //the title and two knows links
+        assertEquals(1, changes.getAdded().size());
+        assertFalse(doc.isDirty());
+        assertTrue(Models.isomorphic(model, ExampleData.toModel(doc)));
+        assertTrue(doc.syncToModel(model).isEmpty());
+    }
+
+    /**
+     * Changes the collections of entities loaded from a repository and synchronizes the changes back.
+     * Exporting the changed entities must not discard the changes.
+     */
+    public void testSyncToRepository()
+    {
+        final Repository repo = ExampleData.createRepository();
+        try (RepositoryConnection con = repo.getConnection())
+        {
+            con.add(ExampleData.toModel(ExampleData.createChain(SIZE, true)));
+            final ExampleFactory factory = new ExampleFactory();
+            final Document doc = factory.createDocument(EX.data("d0"));
+            doc.loadFromRepository(con, factory);
+
+            final Person author = doc.getAuthor();
+            final Iterator<Person> it = author.getKnows().iterator();
+            it.next();
+            it.remove();
+            author.setNicks(new String[] {"changed"});
+            ExampleData.toModel(doc); //an export keeps the changes
+            assertTrue(author.isDirty());
+
+            final DeltaTargetModel target = new DeltaTargetModel(new RepositoryEntitySource(con, factory));
+            target.add(doc);
+            final ChangeSet changes = target.getChanges();
+            con.begin();
+            changes.applyTo(con);
+            con.commit();
+            assertEquals(3, changes.getRemoved().size()); //a knows link and two nicks
+            assertEquals(1, changes.getAdded().size());
+            assertFalse(author.isDirty());
+            assertTrue(Models.isomorphic(ExampleData.toModel(doc), ExampleData.export(con)));
+        }
+        finally
+        {
+            repo.shutDown();
+        }
+    }
+
+    /**
+     * Synchronizes an entity loaded with a limited depth. The statements of the entities
+     * that have not been loaded must be kept even when their properties are changed.
+     */
+    public void testSyncDepthLimited()
+    {
+        final Repository repo = ExampleData.createRepository();
+        try (RepositoryConnection con = repo.getConnection())
+        {
+            final Model expected = ExampleData.toModel(ExampleData.createChain(SIZE, true));
+            con.add(expected);
+            final ExampleFactory factory = new ExampleFactory();
+            final Document doc = factory.createDocument(EX.data("d0"));
+            doc.loadFromRepository(con, factory, 0);
+            doc.setTitle("changed");
+            doc.getAuthor().getKnows().add(doc.getAuthor());
+
+            final DeltaTargetModel target = new DeltaTargetModel(new RepositoryEntitySource(con, factory));
+            target.add(doc);
+            final ChangeSet changes = target.getChanges();
+            con.begin();
+            changes.applyTo(con);
+            con.commit();
+            assertEquals(1, changes.getRemoved().size()); //the title only
+            expected.remove(doc.getIRI(), EX.title, null);
+            expected.add(doc.getIRI(), EX.title, RDFEntity.vf.createLiteral("changed"));
+            expected.add(doc.getAuthor().getIRI(), EX.knows, doc.getAuthor().getIRI());
+            assertTrue(Models.isomorphic(expected, ExampleData.export(con)));
+        }
+        finally
+        {
+            repo.shutDown();
+        }
+    }
+
+    /**
+     * Changes an entity reachable through unchanged entities only. The unchanged entities must be
+     * traversed without creating their statements.
+     */
+    public void testSkipCleanEntities()
+    {
+        final Model model = ExampleData.toModel(ExampleData.createChain(SIZE, false));
+        final ExampleFactory factory = new ExampleFactory();
+        final Document doc = factory.createDocument(EX.data("d0"));
+        doc.loadFromModel(model, factory);
+        Document last = doc;
+        while (last.getNext() != null)
+            last = last.getNext();
+        last.setTitle("changed");
+
+        final int[] count = new int[1];
+        final DeltaTargetModel target = new DeltaTargetModel(model) {
+            @Override
+            public void addStatement(Resource subject, IRI predicate, Value object)
+            {
+                count[0]++;
+                super.addStatement(subject, predicate, object);
+            }
+        };
+        target.add(doc);
+        assertEquals(1, target.getChanges().getRemoved().size());
+        assertEquals(1, target.getChanges().getAdded().size());
+        assertEquals(model.filter(last.getIRI(), null, null).size(), count[0]); //the changed entity only
+        assertFalse(last.isDirty());
+    }
+
+    public void testNewEntity()
+    {
+        final Model model = new LinkedHashModel();
+        final Document doc = ExampleData.createChain(SIZE, false);
+        final ChangeSet changes = doc.syncToModel(model);
+        assertTrue(changes.getRemoved().isEmpty());
+        assertTrue(Models.isomorphic(model, ExampleData.toModel(doc)));
+        assertFalse(doc.isDirty());
+    }
+
+}
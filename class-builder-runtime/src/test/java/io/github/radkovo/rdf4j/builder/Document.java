@@ -0,0 +1,115 @@
+/**
+ * Document.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * A test entity written in the same way as the generated classes.
+ */
+public class Document extends RDFEntity
+{
+    public static final IRI CLASS_IRI = EX.Document;
+
+    public static final String CONSTRUCT_QUERY = "CONSTRUCT { ?s ?p ?o } WHERE { VALUES ?p { <"
+            + EX.title + "> <" + EX.author + "> <" + EX.next + "> } ?s ?p ?o }";
+
+    private String title;
+    private Person author;
+    private Document next;
+
+
+    public Document(IRI iri)
+    {
+        super(iri);
+    }
+
+    @Override
+    public IRI getClassIRI()
+    {
+        return CLASS_IRI;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    public void setTitle(String title)
+    {
+        this.title = title;
+        markDirty(EX.title);
+    }
+
+    public Person getAuthor()
+    {
+        return author;
+    }
+
+    public void setAuthor(Person author)
+    {
+        this.author = author;
+        markDirty(EX.author);
+    }
+
+    public Document getNext()
+    {
+        return next;
+    }
+
+    public void setNext(Document next)
+    {
+        this.next = next;
+        markDirty(EX.next);
+    }
+
+    @Override
+    public void addToModel(TargetModel target)
+    {
+        super.addToModel(target);
+        addValue(target, EX.title, title);
+        addObject(target, EX.author, author);
+        addObject(target, EX.next, next);
+    }
+
+    @Override
+    public void addReferences(TargetModel target)
+    {
+        super.addReferences(target);
+        if (author != null) target.add(author);
+        if (next != null) target.add(next);
+    }
+
+    @Override
+    protected void resetProperties()
+    {
+        super.resetProperties();
+        title = null;
+        author = null;
+        next = null;
+    }
+
+    @Override
+    protected void loadStatement(IRI pred, Value value, LoadContext context)
+    {
+        switch (pred.stringValue())
+        {
+            case "http://example.org/test#title":
+                if (context.nextValueIndex(pred) == 0)
+                    this.title = asString(value);
+                break;
+            case "http://example.org/test#author":
+                if (value instanceof IRI && context.nextValueIndex(pred) == 0)
+                    this.author = context.getEntity((IRI) value, Person.class, Person.factory(context)::createPerson);
+                break;
+            case "http://example.org/test#next":
+                if (value instanceof IRI && context.nextValueIndex(pred) == 0)
+                    this.next = context.getEntity((IRI) value, Document.class, Person.factory(context)::createDocument);
+                break;
+            default:
+                super.loadStatement(pred, value, context);
+        }
+    }
+}
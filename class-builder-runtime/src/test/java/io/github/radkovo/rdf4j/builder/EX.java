@@ -0,0 +1,50 @@
+/**
+ * EX.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+
+/**
+ * The vocabulary of the test entities.
+ */
+public class EX
+{
+    public static final String NAMESPACE = "http://example.org/test#";
+    public static final String DATA_NAMESPACE = "http://example.org/test/data#";
+
+    public static final IRI Person;
+    public static final IRI Document;
+
+    public static final IRI name;
+    public static final IRI knows;
+    public static final IRI nicks;
+    public static final IRI title;
+    public static final IRI author;
+    public static final IRI next;
+
+    static
+    {
+        final ValueFactory vf = SimpleValueFactory.getInstance();
+        Person = vf.createIRI(NAMESPACE, "Person");
+        Document = vf.createIRI(NAMESPACE, "Document");
+        name = vf.createIRI(NAMESPACE, "name");
+        knows = vf.createIRI(NAMESPACE, "knows");
+        nicks = vf.createIRI(NAMESPACE, "nicks");
+        title = vf.createIRI(NAMESPACE, "title");
+        author = vf.createIRI(NAMESPACE, "author");
+        next = vf.createIRI(NAMESPACE, "next");
+    }
+
+    /**
+     * Creates the IRI of a test entity.
+     * @param localName the local name
+     * @return the IRI
+     */
+    public static IRI data(String localName)
+    {
+        return SimpleValueFactory.getInstance().createIRI(DATA_NAMESPACE, localName);
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * EntityStreamTest.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.eclipse.rdf4j.model.Model;
+
+import junit.framework.TestCase;
+
+/**
+ * Loads the instances of an entity class using sequential and parallel {@link EntityStream}s.
+ */
+public class EntityStreamTest extends TestCase
+{
+    private static final int SIZE = 500;
+
+
+    public void testStream()
+    {
+        final Model model = ExampleData.toModel(ExampleData.createChain(SIZE, true));
+        for (boolean parallel : new boolean[] {false, true})
+        {
+            final List<Document> docs = EntityStream.of(model, EX.Document, Document.class, new ExampleFactory(), false, parallel)
+                    .collect(Collectors.toList());
+            assertEquals("parallel=" + parallel, SIZE, docs.size());
+            for (Document doc : docs)
+            {
+                final String id = doc.getIRI().getLocalName().substring(1);
+                assertEquals("Document " + id, doc.getTitle());
+                assertEquals("Person " + id, doc.getAuthor().getName());
+                assertNotNull(doc.getNext().getTitle());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+/**
+ * ExampleData.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.sail.SailRepository;
+import org.eclipse.rdf4j.rio.helpers.StatementCollector;
+import org.eclipse.rdf4j.sail.memory.MemoryStore;
+
+/**
+ * Creates the test entity graphs and repositories.
+ */
+public class ExampleData
+{
+
+    /**
+     * Creates a chain of documents linked by their {@code next} property. Each document has an author;
+     * the authors know the authors of the following two documents.
+     * @param size the number of documents
+     * @param cyclic link the last document to the first one?
+     * @return the first document of the chain
+     */
+    public static Document createChain(int size, boolean cyclic)
+    {
+        final ExampleFactory factory = new ExampleFactory();
+        final Document[] docs = new Document[size];
+        final Person[] persons = new Person[size];
+        for (int i = 0; i < size; i++)
+        {
+            persons[i] = factory.createPerson(EX.data("p" + i));
+            persons[i].setName("Person " + i);
+            persons[i].setNicks(new String[] {"p" + i, "person" + i});
+            docs[i] = factory.createDocument(EX.data("d" + i));
+            docs[i].setTitle("Document " + i);
+            docs[i].setAuthor(persons[i]);
+        }
+        for (int i = 0; i < size; i++)
+        {
+            if (i + 1 < size || cyclic)
+                docs[i].setNext(docs[(i + 1) % size]);
+            for (int j = 1; j <= 2; j++)
+            {
+                if (i + j < size || cyclic)
+                    persons[i].getKnows().add(persons[(i + j) % size]);
+            }
+        }
+        return docs[0];
+    }
+
+    /**
+     * Serializes an entity graph to a new model.
+     * @param entity the entity to serialize including the referenced entities
+     * @return the model
+     */
+    public static Model toModel(RDFEntity entity)
+    {
+        final Model ret = new LinkedHashModel();
+        new TargetModel(ret).add(entity);
+        return ret;
+    }
+
+    /**
+     * Creates an empty in-memory repository.
+     * @return the initialized repository
+     */
+    public static Repository createRepository()
+    {
+        final Repository repo = new SailRepository(new MemoryStore());
+        repo.init();
+        return repo;
+    }
+
+    /**
+     * Exports all the statements of a repository.
+     * @param con the repository connection
+     * @return a model with the statements
+     */
+    public static Model export(RepositoryConnection con)
+    {
+        final Model ret = new LinkedHashModel();
+        con.export(new StatementCollector(ret));
+        return ret;
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * ExampleFactory.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.IRI;
+
+/**
+ * A factory of the test entities that counts the created entities.
+ */
+public class ExampleFactory implements EntityFactory
+{
+    private int createdCount;
+
+
+    public int getCreatedCount()
+    {
+        return createdCount;
+    }
+
+    public Person createPerson(IRI iri)
+    {
+        createdCount++;
+        return new Person(iri);
+    }
+
+    public Document createDocument(IRI iri)
+    {
+        createdCount++;
+        return new Document(iri);
+    }
+
+    @Override
+    public RDFEntity createEntity(IRI classIRI, IRI iri)
+    {
+        if (Person.CLASS_IRI.equals(classIRI))
+            return createPerson(iri);
+        else if (Document.CLASS_IRI.equals(classIRI))
+            return createDocument(iri);
+        else
+            return null;
+    }
+
+    @Override
+    public String getConstructQuery(IRI classIRI)
+    {
+        if (Person.CLASS_IRI.equals(classIRI))
+            return Person.CONSTRUCT_QUERY;
+        else if (Document.CLASS_IRI.equals(classIRI))
+            return Document.CONSTRUCT_QUERY;
+        else
+            return null;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * LoadContextTest.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.vocabulary.RDF;
+
+import junit.framework.TestCase;
+
+/**
+ * Loads entity graphs using a {@link LoadContext}.
+ */
+public class LoadContextTest extends TestCase
+{
+
+    public void testIdentity()
+    {
+        final Model model = ExampleData.toModel(ExampleData.createChain(20, true));
+        final ExampleFactory factory = new ExampleFactory();
+        final Document doc = factory.createDocument(EX.data("d0"));
+        doc.loadFromModel(model, factory);
+        //the chain is a cycle, each entity is created once
+        assertSame(doc, findDocument(doc, 20));
+        assertTrue(doc.getAuthor().getKnows().contains(doc.getNext().getAuthor()));
+        assertEquals(40, factory.getCreatedCount());
+    }
+
+    /**
+     * Loads multiple values of the functional and array properties. The first value of a functional
+     * property must be used and the arrays must contain all the values in the source order.
+     */
+    public void testMultipleValues()
+    {
+        final SimpleValueFactory vf = SimpleValueFactory.getInstance();
+        final IRI p = EX.data("p");
+        final IRI q = EX.data("q");
+        final Model model = new LinkedHashModel();
+        model.add(p, RDF.TYPE, EX.Person);
+        model.add(p, EX.name, vf.createLiteral("first"));
+        for (int i = 0; i < 100; i++)
+            model.add(p, EX.nicks, vf.createLiteral("nick" + i));
+        model.add(p, EX.name, vf.createLiteral("second"));
+        model.add(q, RDF.TYPE, EX.Person);
+        model.add(q, EX.nicks, vf.createLiteral("single"));
+
+        final ExampleFactory factory = new ExampleFactory();
+        final Person person = factory.createPerson(p);
+        person.loadFromModel(model, factory);
+        assertEquals("first", person.getName());
+        assertEquals(100, person.getNicks().length);
+        for (int i = 0; i < 100; i++)
+            assertEquals("nick" + i, person.getNicks()[i]);
+
+        final Person other = factory.createPerson(q);
+        other.loadFromModel(model, factory);
+        assertNull(other.getName());
+        assertEquals(1, other.getNicks().length);
+    }
+
+    /**
+     * An IRI referenced with two unrelated types, including a reference of the entity to itself.
+     * A single entity must be created for each type.
+     */
+    public void testConflictingTypeCycle()
+    {
+        final SimpleValueFactory vf = SimpleValueFactory.getInstance();
+        final IRI x = EX.data("x");
+        final IRI y = EX.data("y");
+        final Model model = new LinkedHashModel();
+        model.add(x, RDF.TYPE, EX.Document);
+        model.add(x, EX.title, vf.createLiteral("x"));
+        model.add(x, EX.author, x);
+        model.add(x, EX.knows, x);
+        model.add(x, EX.next, y);
+        model.add(y, RDF.TYPE, EX.Document);
+        model.add(y, EX.author, x);
+
+        final ExampleFactory factory = new ExampleFactory()
+        {
+            @Override
+            public Person createPerson(IRI iri)
+            {
+                if (getCreatedCount() > 10)
+                    fail("entities are created repeatedly");
+                return super.createPerson(iri);
+            }
+        };
+        final Document doc = factory.createDocument(x);
+        doc.loadFromModel(model, factory);
+        final Person author = doc.getAuthor();
+        assertEquals(x, author.getIRI());
+        assertTrue(author.getKnows().contains(author));
+        assertSame(author, author.getKnows().iterator().next());
+        assertSame(author, doc.getNext().getAuthor());
+        //x and y as documents, x as a person and a document created for checking the type of the author
+        assertEquals(4, factory.getCreatedCount());
+    }
+
+    private static Document findDocument(Document start, int steps)
+    {
+        Document ret = start;
+        for (int i = 0; i < steps; i++)
+            ret = ret.getNext();
+        return ret;
+    }
+
+}
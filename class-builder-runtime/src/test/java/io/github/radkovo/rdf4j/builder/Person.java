@@ -0,0 +1,122 @@
+/**
+ * Person.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.Set;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Value;
+
+/**
+ * A test entity written in the same way as the generated classes.
+ */
+public class Person extends RDFEntity
+{
+    public static final IRI CLASS_IRI = EX.Person;
+
+    public static final String CONSTRUCT_QUERY = "CONSTRUCT { ?s ?p ?o } WHERE { VALUES ?p { <"
+            + EX.name + "> <" + EX.knows + "> <" + EX.nicks + "> } ?s ?p ?o }";
+
+    private String name;
+    private TrackedSet<Person> knows;
+    private String[] nicks;
+
+
+    public Person(IRI iri)
+    {
+        super(iri);
+        knows = new TrackedSet<>(this, EX.knows);
+    }
+
+    @Override
+    public IRI getClassIRI()
+    {
+        return CLASS_IRI;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+        markDirty(EX.name);
+    }
+
+    public Set<Person> getKnows()
+    {
+        return knows;
+    }
+
+    public String[] getNicks()
+    {
+        return nicks;
+    }
+
+    public void setNicks(String[] nicks)
+    {
+        this.nicks = nicks;
+        markDirty(EX.nicks);
+    }
+
+    @Override
+    public void addToModel(TargetModel target)
+    {
+        super.addToModel(target);
+        addValue(target, EX.name, name);
+        addCollection(target, EX.knows, knows);
+        addArray(target, EX.nicks, nicks);
+    }
+
+    @Override
+    public void addReferences(TargetModel target)
+    {
+        super.addReferences(target);
+        target.addAll(knows);
+    }
+
+    @Override
+    protected void resetProperties()
+    {
+        super.resetProperties();
+        name = null;
+        knows = new TrackedSet<>(this, EX.knows);
+        nicks = new String[0];
+    }
+
+    @Override
+    protected void loadStatement(IRI pred, Value value, LoadContext context)
+    {
+        switch (pred.stringValue())
+        {
+            case "http://example.org/test#name":
+                if (context.nextValueIndex(pred) == 0)
+                    this.name = asString(value);
+                break;
+            case "http://example.org/test#knows":
+                if (value instanceof IRI)
+                    this.knows.addLoaded(context.getEntity((IRI) value, Person.class, factory(context)::createPerson));
+                break;
+            case "http://example.org/test#nicks":
+                this.nicks = appendValue(this.nicks, context.nextValueIndex(pred), asString(value));
+                break;
+            default:
+                super.loadStatement(pred, value, context);
+        }
+    }
+
+    @Override
+    protected void loadFinished(LoadContext context)
+    {
+        super.loadFinished(context);
+        nicks = trimArray(nicks, context.getValueCount(EX.nicks));
+    }
+
+    static ExampleFactory factory(LoadContext context)
+    {
+        return (ExampleFactory) context.getFactory();
+    }
+}
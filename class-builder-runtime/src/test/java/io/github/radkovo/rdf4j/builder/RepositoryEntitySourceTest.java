@@ -0,0 +1,103 @@
+/**
+ * RepositoryEntitySourceTest.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+
+import junit.framework.TestCase;
+
+/**
+ * Loads entity graphs from an in-memory repository using {@link RepositoryEntitySource}.
+ */
+public class RepositoryEntitySourceTest extends TestCase
+{
+    private static final int SIZE = 200;
+
+    private Repository repo;
+    private RepositoryConnection con;
+
+
+    @Override
+    protected void setUp()
+    {
+        repo = ExampleData.createRepository();
+        con = repo.getConnection();
+    }
+
+    @Override
+    protected void tearDown()
+    {
+        con.close();
+        repo.shutDown();
+    }
+
+    public void testLoad()
+    {
+        for (boolean cyclic : new boolean[] {false, true})
+        {
+            con.clear();
+            final Model expected = ExampleData.toModel(ExampleData.createChain(SIZE, cyclic));
+            con.add(expected);
+            final ExampleFactory factory = new ExampleFactory();
+            final Document doc = factory.createDocument(EX.data("d0"));
+            doc.loadFromRepository(con, factory);
+            assertTrue("cyclic=" + cyclic, Models.isomorphic(expected, ExampleData.toModel(doc)));
+        }
+    }
+
+    /**
+     * With a limited depth, the entities beyond the depth are created with their IRIs only
+     * and they are not persistent.
+     */
+    public void testLoadDepth()
+    {
+        con.add(ExampleData.toModel(ExampleData.createChain(SIZE, false)));
+        final ExampleFactory factory = new ExampleFactory();
+
+        final Document first = factory.createDocument(EX.data("d0"));
+        first.loadFromRepository(con, factory, 0);
+        assertEquals("Document 0", first.getTitle());
+        assertTrue(first.isPersistent());
+        assertNull(first.getNext().getTitle());
+        assertNull(first.getAuthor().getName());
+        assertFalse(first.getNext().isPersistent());
+        assertFalse(first.getAuthor().isPersistent());
+
+        final Document second = factory.createDocument(EX.data("d0"));
+        second.loadFromRepository(con, factory, 1);
+        assertEquals("Document 1", second.getNext().getTitle());
+        assertEquals("Person 0", second.getAuthor().getName());
+        assertTrue(second.getNext().isPersistent());
+        assertNull(second.getNext().getNext().getTitle());
+        assertFalse(second.getNext().getNext().isPersistent());
+    }
+
+    /**
+     * Stores and loads entities whose IRIs must be escaped in the generated queries.
+     */
+    public void testSpecialIRIs()
+    {
+        final SimpleValueFactory vf = SimpleValueFactory.getInstance();
+        final ExampleFactory factory = new ExampleFactory();
+        final Document doc = factory.createDocument(EX.data("dokument-\u017elut\u00fd"));
+        final Person author = factory.createPerson(vf.createIRI("http://example.org/test/\u30c7\u30fc\u30bf#p\u00b2"));
+        doc.setTitle("first");
+        doc.setAuthor(author);
+        author.setName("author");
+        author.getKnows().add(author);
+        final Model expected = ExampleData.toModel(doc);
+        try (RepositoryTargetModel target = new RepositoryTargetModel(con))
+        {
+            target.add(doc);
+        }
+        final Document loaded = factory.createDocument(doc.getIRI());
+        loaded.loadFromRepository(con, factory);
+        assertTrue(Models.isomorphic(expected, ExampleData.toModel(loaded)));
+    }
+
+}
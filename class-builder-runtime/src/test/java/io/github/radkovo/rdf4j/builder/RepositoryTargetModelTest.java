@@ -0,0 +1,205 @@
+/**
+ * RepositoryTargetModelTest.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.model.util.Models;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.eclipse.rdf4j.repository.RepositoryException;
+import org.eclipse.rdf4j.repository.base.RepositoryConnectionWrapper;
+
+import junit.framework.TestCase;
+
+/**
+ * Stores entity graphs to an in-memory repository using {@link RepositoryTargetModel}.
+ */
+public class RepositoryTargetModelTest extends TestCase
+{
+    private static final int SIZE = 200;
+
+
+    public void testStore()
+    {
+        for (boolean cyclic : new boolean[] {false, true})
+        {
+            final Document doc = ExampleData.createChain(SIZE, cyclic);
+            final Model expected = ExampleData.toModel(doc);
+            for (int batchSize : new int[] {1, 7, RepositoryTargetModel.DEFAULT_BATCH_SIZE})
+            {
+                for (boolean background : new boolean[] {false, true})
+                {
+                    final Repository repo = ExampleData.createRepository();
+                    try (RepositoryConnection con = repo.getConnection())
+                    {
+                        try (RepositoryTargetModel target = new RepositoryTargetModel(con, batchSize, background))
+                        {
+                            target.add(doc);
+                        }
+                        assertTrue("batchSize=" + batchSize + " background=" + background,
+                                Models.isomorphic(expected, ExampleData.export(con)));
+                    }
+                    finally
+                    {
+                        repo.shutDown();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the statements while the first commit fails. The failure must be reported and
+     * no statements may be lost when the writing continues.
+     */
+    public void testFailedCommit()
+    {
+        final Model expected = ExampleData.toModel(ExampleData.createChain(SIZE, true));
+        for (boolean background : new boolean[] {false, true})
+        {
+            final Repository repo = ExampleData.createRepository();
+            try (RepositoryConnection con = new FailingConnection(repo, repo.getConnection()))
+            {
+                int reported = 0;
+                try (RepositoryTargetModel target = new RepositoryTargetModel(con, 100, background))
+                {
+                    for (Statement st : expected)
+                    {
+                        try
+                        {
+                            target.addStatement(st.getSubject(), st.getPredicate(), st.getObject());
+                        }
+                        catch (RepositoryException e)
+                        {
+                            reported++;
+                        }
+                    }
+                }
+                assertEquals("background=" + background, 1, reported);
+                assertTrue("background=" + background, Models.isomorphic(expected, ExampleData.export(con)));
+            }
+            finally
+            {
+                repo.shutDown();
+            }
+        }
+    }
+
+    /**
+     * Adds an entity graph while the first commit fails. The failure must be reported by {@link TargetModel#add(RDFEntity)}
+     * and repeating the adding must store all the statements of the graph, each of them once.
+     */
+    public void testFailedCommitWhileAdding()
+    {
+        final Document doc = ExampleData.createChain(SIZE, true);
+        final Model expected = ExampleData.toModel(doc);
+        for (boolean background : new boolean[] {false, true})
+        {
+            final Repository repo = ExampleData.createRepository();
+            try (RepositoryConnection con = new FailingConnection(repo, repo.getConnection()))
+            {
+                try (RepositoryTargetModel target = new RepositoryTargetModel(con, 7, background))
+                {
+                    try
+                    {
+                        target.add(doc);
+                        fail("background=" + background + ": the failure has not been reported");
+                    }
+                    catch (RepositoryException e)
+                    {
+                        //expected
+                    }
+                    target.add(doc);
+                    target.flush();
+                    assertEquals("background=" + background, expected.size(), target.getCommittedCount());
+                }
+                assertTrue("background=" + background, Models.isomorphic(expected, ExampleData.export(con)));
+            }
+            finally
+            {
+                repo.shutDown();
+            }
+        }
+    }
+
+    /**
+     * Interrupts the waiting for a background commit that fails afterwards. The statements of the batch
+     * must be written by the next flush.
+     */
+    public void testInterruptedCommit() throws InterruptedException
+    {
+        final Document doc = ExampleData.createChain(SIZE, true);
+        final Model expected = ExampleData.toModel(doc);
+        final Repository repo = ExampleData.createRepository();
+        final CountDownLatch latch = new CountDownLatch(1);
+        try (RepositoryConnection con = new FailingConnection(repo, repo.getConnection(), latch))
+        {
+            try (RepositoryTargetModel target = new RepositoryTargetModel(con, RepositoryTargetModel.DEFAULT_BATCH_SIZE, true))
+            {
+                target.add(doc); //smaller than a batch, nothing is written
+                Thread.currentThread().interrupt();
+                try
+                {
+                    target.flush();
+                    fail("the interrupt has not been reported");
+                }
+                catch (RepositoryException e)
+                {
+                    assertTrue(Thread.interrupted());
+                }
+                latch.countDown(); //let the background commit fail
+            }
+            assertTrue(Models.isomorphic(expected, ExampleData.export(con)));
+        }
+        finally
+        {
+            repo.shutDown();
+        }
+    }
+
+    //=======================================================================================================
+
+    /**
+     * A connection whose first commit fails, optionally after a latch is released.
+     */
+    static class FailingConnection extends RepositoryConnectionWrapper
+    {
+        private final CountDownLatch latch;
+        private boolean failed;
+
+        public FailingConnection(Repository repository, RepositoryConnection delegate)
+        {
+            this(repository, delegate, new CountDownLatch(0));
+        }
+
+        public FailingConnection(Repository repository, RepositoryConnection delegate, CountDownLatch latch)
+        {
+            super(repository, delegate);
+            this.latch = latch;
+        }
+
+        @Override
+        public void commit() throws RepositoryException
+        {
+            if (!failed)
+            {
+                failed = true;
+                try
+                {
+                    latch.await();
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                throw new RepositoryException("Simulated commit failure");
+            }
+            super.commit();
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+/**
+ * TargetModelTest.java
+ */
+package io.github.radkovo.rdf4j.builder;
+
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.model.Resource;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.model.impl.LinkedHashModel;
+import org.eclipse.rdf4j.model.util.Models;
+
+import junit.framework.TestCase;
+
+/**
+ * Adds entity graphs to a {@link TargetModel} and a {@link ConcurrentTargetModel}.
+ */
+public class TargetModelTest extends TestCase
+{
+    private static final int SIZE = 100;
+
+
+    public void testGetEntities()
+    {
+        final Document doc = ExampleData.createChain(SIZE, true);
+        final TargetModel target = new TargetModel(new LinkedHashModel());
+        assertTrue(target.isRetainEntities());
+        target.add(doc);
+        assertEquals(2 * SIZE, target.getEntities().size());
+        assertTrue(target.getEntities().contains(doc));
+        assertEquals(2 * SIZE, target.getAddedCount());
+
+        final TargetModel streaming = new TargetModel(new LinkedHashModel());
+        streaming.setRetainEntities(false);
+        streaming.add(doc);
+        assertEquals(2 * SIZE, streaming.getAddedCount());
+        try
+        {
+            streaming.getEntities();
+            fail("the entities are not retained");
+        }
+        catch (IllegalStateException e)
+        {
+            //expected
+        }
+    }
+
+    /**
+     * The storing of an entity fails in the middle of the graph. The entities not stored yet
+     * must be stored when the adding is repeated.
+     */
+    public void testFailedStore()
+    {
+        final Document doc = ExampleData.createChain(SIZE, true);
+        final Model expected = ExampleData.toModel(doc);
+        final Model model = new LinkedHashModel();
+        final TargetModel target = new FailingTargetModel(model, EX.data("d50"));
+        try
+        {
+            target.add(doc);
+            fail("the storing should fail");
+        }
+        catch (IllegalStateException e)
+        {
+            //expected
+        }
+        target.add(doc);
+        assertTrue(Models.isomorphic(expected, model));
+    }
+
+    public void testFailedConcurrentStore()
+    {
+        final Document doc = ExampleData.createChain(SIZE, true);
+        final Model expected = ExampleData.toModel(doc);
+        final Model model = new LinkedHashModel();
+        final ConcurrentTargetModel target = new ConcurrentTargetModel(model)
+        {
+            private boolean failed;
+
+            @Override
+            public void addStatement(Resource subject, IRI predicate, Value object)
+            {
+                if (!failed && subject.equals(EX.data("d50")))
+                {
+                    failed = true;
+                    throw new IllegalStateException("Simulated failure");
+                }
+                super.addStatement(subject, predicate, object);
+            }
+        };
+        try
+        {
+            target.add(doc);
+            fail("the storing should fail");
+        }
+        catch (IllegalStateException e)
+        {
+            //expected
+        }
+        target.flush();
+        assertTrue(Models.isomorphic(expected, model));
+    }
+
+    //=======================================================================================================
+
+    /**
+     * A target that fails once when the first statement of the given subject is added.
+     */
+    static class FailingTargetModel extends TargetModel
+    {
+        private final IRI failingSubject;
+        private boolean failed;
+
+        public FailingTargetModel(Model model, IRI failingSubject)
+        {
+            super(model);
+            this.failingSubject = failingSubject;
+        }
+
+        @Override
+        public void addStatement(Resource subject, IRI predicate, Value object)
+        {
+            if (!failed && subject.equals(failingSubject))
+            {
+                failed = true;
+                throw new IllegalStateException("Simulated failure");
+            }
+            super.addStatement(subject, predicate, object);
+        }
+    }
+
+}